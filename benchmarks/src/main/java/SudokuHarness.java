@@ -0,0 +1,219 @@
+import java.util.Random;
+
+import benchmarks.EngineHarness;
+
+/**
+ * This class implements the benchmark harness on top of the Sudoku engine and
+ * holds the fixed puzzle sets, grouped by difficulty. The easy set and the
+ * generated boards come from fixed seeds, so every run measures the same
+ * puzzles.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class SudokuHarness implements EngineHarness {
+    private static final long SEED = 4963;
+    private static final int EASY_COUNT = 16;
+    // Number of seeds cycled through by generateNext()
+    private static final int GENERATE_SEEDS = 64;
+
+    // Well-known hard puzzles that need a lot of search
+    private static final String[] HARD = {
+            "6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+            "..53.....8......2..7..1.5..4....53...1..7...6..32...8..6.5....9..4....3......97..",
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+            "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+    };
+
+    // Puzzles built to defeat left-to-right cell-order search
+    private static final String[] ADVERSARIAL = {
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+    };
+
+    // Boards with very few givens
+    private static final String[] NEAR_EMPTY = {
+            ".................................................................................",
+            "1...............................................................................9",
+            "..3.........5.........................8.........................7.........1......",
+    };
+
+    private Sudoku model;
+    private int[][][] puzzles;
+    private byte[][] cells;
+    private DifficultyGrader grader;
+    private Random random;
+    private int next;
+    private BatchValidator validator;
+    private byte[] boards;
+    private byte[] solutions;
+    private byte[] results;
+    private boolean vector;
+
+    @Override
+    public void prepareSolve(String set, String mode) {
+        puzzles = load(set);
+        model = new Sudoku(puzzles[0]);
+        model.setSolverMode(SolverMode.valueOf(mode));
+        next = 0;
+    }
+
+    @Override
+    public boolean solveNext() {
+        model.loadPuzzle(puzzles[next]);
+        next = next + 1 == puzzles.length ? 0 : next + 1;
+        return model.solve();
+    }
+
+    @Override
+    public void prepareGrade(String set) {
+        int[][][] boards = load(set);
+        cells = new byte[boards.length][];
+        for (int i = 0; i < boards.length; i++) {
+            cells[i] = BoardGeometry.of(boards[i].length).toCells(boards[i]);
+        }
+        grader = new DifficultyGrader();
+        next = 0;
+    }
+
+    @Override
+    public int gradeNext() {
+        byte[] puzzle = cells[next];
+        next = next + 1 == cells.length ? 0 : next + 1;
+        return grader.grade(puzzle).ordinal();
+    }
+
+    /**
+     * Returns the puzzles of a set.
+     *
+     * @param set One of "easy", "hard", "adversarial" or "near-empty".
+     * @return the puzzles.
+     */
+    private static int[][][] load(String set) {
+        switch (set) {
+            case "easy":
+                return generate(EASY_COUNT);
+            case "hard":
+                return parse(HARD);
+            case "adversarial":
+                return parse(ADVERSARIAL);
+            case "near-empty":
+                return parse(NEAR_EMPTY);
+            default:
+                throw new IllegalArgumentException("Unknown puzzle set: " + set);
+        }
+    }
+
+    @Override
+    public void prepareGenerate(int subgridSize) {
+        model = new Sudoku(subgridSize);
+        random = new Random();
+        next = 0;
+    }
+
+    @Override
+    public byte[] generateNext() {
+        random.setSeed(SEED + next);
+        next = next + 1 == GENERATE_SEEDS ? 0 : next + 1;
+        model.generatePuzzle(random);
+        return model.getCells();
+    }
+
+    @Override
+    public void prepareBoard() {
+        model = new Sudoku(generate(1)[0]);
+    }
+
+    @Override
+    public int getBoardSize() {
+        return model.getBoardSize();
+    }
+
+    @Override
+    public boolean isValidMove(int row, int col, int num) {
+        return model.isValidMove(row, col, num);
+    }
+
+    @Override
+    public int[][] copyBoard() {
+        return model.copyBoard();
+    }
+
+    @Override
+    public byte[] copyCells() {
+        return model.copyCells();
+    }
+
+    @Override
+    public void prepareValidate(int count, boolean vector) {
+        validator = new BatchValidator(9);
+        if (vector && !validator.isVectorized()) {
+            throw new IllegalStateException("Start the JVM with --add-modules jdk.incubator.vector");
+        }
+        this.vector = vector;
+        int[][][] solved = generate(EASY_COUNT);
+        Sudoku solver = new Sudoku(solved[0]);
+        boards = new byte[count * 81];
+        solutions = new byte[count * 81];
+        results = new byte[count];
+        Random changes = new Random(SEED);
+        for (int i = 0; i < count; i++) {
+            if (i < EASY_COUNT) {
+                solver.loadPuzzle(solved[i]);
+                solver.solve();
+                System.arraycopy(solver.getCells(), 0, solutions, i * 81, 81);
+            } else {
+                System.arraycopy(solutions, (i % EASY_COUNT) * 81, solutions, i * 81, 81);
+            }
+            System.arraycopy(solutions, i * 81, boards, i * 81, 81);
+            // A third of the boards are missing a number, a fifth have a wrong one
+            if (i % 3 == 0) {
+                boards[i * 81 + changes.nextInt(81)] = 0;
+            }
+            if (i % 5 == 0) {
+                boards[i * 81 + changes.nextInt(81)] = (byte) (1 + changes.nextInt(9));
+            }
+        }
+    }
+
+    @Override
+    public byte[] validateBatch() {
+        if (vector) {
+            validator.validate(boards, solutions, results.length, results);
+        } else {
+            validator.validateScalar(boards, solutions, results.length, results);
+        }
+        return results;
+    }
+
+    /**
+     * Generates 9x9 puzzles from consecutive fixed seeds.
+     *
+     * @param count The number of puzzles.
+     * @return the generated puzzles.
+     */
+    private static int[][][] generate(int count) {
+        Sudoku generator = new Sudoku(PuzzleFormat.parse(NEAR_EMPTY[0]));
+        int[][][] generated = new int[count][][];
+        for (int i = 0; i < count; i++) {
+            generator.generatePuzzle(new Random(SEED + i));
+            generated[i] = generator.copyBoard();
+        }
+        return generated;
+    }
+
+    /**
+     * Parses puzzles in the one-line text format.
+     *
+     * @param lines The puzzle lines.
+     * @return the parsed puzzles.
+     */
+    private static int[][][] parse(String[] lines) {
+        int[][][] parsed = new int[lines.length][][];
+        for (int i = 0; i < lines.length; i++) {
+            parsed[i] = PuzzleFormat.parse(lines[i]);
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * This class measures the small board operations that the viewer and the
+ * solvers call often: Sudoku.isValidMove(), and copying the board as a 2D
+ * array with Sudoku.copyBoard() or flat with Sudoku.copyCells().
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    private EngineHarness engine;
+    private int boardSize;
+
+    /**
+     * Loads a fixed generated puzzle.
+     */
+    @Setup
+    public void setUp() {
+        engine = EngineHarness.create();
+        engine.prepareBoard();
+        boardSize = engine.getBoardSize();
+    }
+
+    /**
+     * Checks every digit in every cell of the board, as the number buttons
+     * of the viewer would.
+     *
+     * @param blackhole Consumes the results.
+     */
+    @Benchmark
+    public void isValidMove(Blackhole blackhole) {
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                for (int num = 1; num <= boardSize; num++) {
+                    blackhole.consume(engine.isValidMove(row, col, num));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the board as a 2D array.
+     *
+     * @return the copy.
+     */
+    @Benchmark
+    public int[][] copyBoard() {
+        return engine.copyBoard();
+    }
+
+    /**
+     * Copies the flat board.
+     *
+     * @return the copy.
+     */
+    @Benchmark
+    public byte[] copyCells() {
+        return engine.copyCells();
+    }
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+/**
+ * This interface is how the benchmarks reach the Sudoku engine. JMH only
+ * accepts benchmark classes in a named package, while the engine classes are
+ * in the default package and cannot be referenced from one, so the engine
+ * side is implemented by SudokuHarness in the default package and loaded by
+ * name. Each benchmark has its own harness, so calls through this interface
+ * have a single target and are inlined by the JIT.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public interface EngineHarness {
+    /**
+     * Creates a new harness for the engine.
+     *
+     * @return the harness.
+     */
+    static EngineHarness create() {
+        try {
+            return (EngineHarness) Class.forName("SudokuHarness").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Engine harness not found", e);
+        }
+    }
+
+    /**
+     * Loads a puzzle set for solveNext().
+     *
+     * @param set  One of "easy", "hard", "adversarial" or "near-empty".
+     * @param mode The name of the solver mode.
+     */
+    void prepareSolve(String set, String mode);
+
+    /**
+     * Loads the next puzzle of the set into the model and solves it.
+     *
+     * @return whether the puzzle was solved.
+     */
+    boolean solveNext();
+
+    /**
+     * Loads a puzzle set for gradeNext().
+     *
+     * @param set One of "easy", "hard", "adversarial" or "near-empty".
+     */
+    void prepareGrade(String set);
+
+    /**
+     * Grades the next puzzle of the set with DifficultyGrader.
+     *
+     * @return the ordinal of the grade.
+     */
+    int gradeNext();
+
+    /**
+     * Creates the model used by generateNext().
+     *
+     * @param subgridSize The subgrid size of the generated boards.
+     */
+    void prepareGenerate(int subgridSize);
+
+    /**
+     * Generates a puzzle from the next fixed seed.
+     *
+     * @return the generated flat board.
+     */
+    byte[] generateNext();
+
+    /**
+     * Loads a fixed generated 9x9 puzzle for the board operations.
+     */
+    void prepareBoard();
+
+    /**
+     * Returns the board size of the loaded model.
+     *
+     * @return the number of rows and columns.
+     */
+    int getBoardSize();
+
+    /**
+     * Calls Sudoku.isValidMove() on the loaded model.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @param num The number to check.
+     * @return whether the move is valid.
+     */
+    boolean isValidMove(int row, int col, int num);
+
+    /**
+     * Calls Sudoku.copyBoard() on the loaded model.
+     *
+     * @return the copy.
+     */
+    int[][] copyBoard();
+
+    /**
+     * Calls Sudoku.copyCells() on the loaded model.
+     *
+     * @return the copy.
+     */
+    byte[] copyCells();
+
+    /**
+     * Packs a batch of solved 9x9 boards and their solutions for
+     * validateBatch(). Some boards have an empty cell or a wrong number.
+     *
+     * @param count  The number of boards in the batch.
+     * @param vector Whether to validate with the Vector API or the scalar
+     *               path.
+     */
+    void prepareValidate(int count, boolean vector);
+
+    /**
+     * Checks the whole batch with BatchValidator.
+     *
+     * @return the results of the boards.
+     */
+    byte[] validateBatch();
+}
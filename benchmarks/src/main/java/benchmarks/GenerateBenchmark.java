@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures Sudoku.generatePuzzle() for each board size. The random
+ * number generator is reseeded from a fixed sequence of seeds, so every run
+ * generates the same puzzles.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenerateBenchmark {
+    @Param({ "3", "4", "5" })
+    public int subgridSize;
+
+    private EngineHarness engine;
+
+    /**
+     * Creates the model used for every generation.
+     */
+    @Setup
+    public void setUp() {
+        engine = EngineHarness.create();
+        engine.prepareGenerate(subgridSize);
+    }
+
+    /**
+     * Generates a puzzle from the next seed.
+     *
+     * @return the generated board.
+     */
+    @Benchmark
+    public byte[] generatePuzzle() {
+        return engine.generateNext();
+    }
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures DifficultyGrader.grade() on the same puzzle sets as
+ * SolveBenchmark. Grading runs once for every cell removed while generating
+ * a puzzle of a given difficulty, so its throughput bounds how fast those
+ * puzzles can be generated.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GradeBenchmark {
+    @Param({ "easy", "hard", "adversarial", "near-empty" })
+    public String set;
+
+    private EngineHarness engine;
+
+    /**
+     * Loads the puzzle set.
+     */
+    @Setup
+    public void setUp() {
+        engine = EngineHarness.create();
+        engine.prepareGrade(set);
+    }
+
+    /**
+     * Grades the next puzzle of the set.
+     *
+     * @return the ordinal of the grade.
+     */
+    @Benchmark
+    public int grade() {
+        return engine.gradeNext();
+    }
+}
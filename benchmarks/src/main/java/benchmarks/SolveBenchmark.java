@@ -0,0 +1,58 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures Sudoku.solve() for every puzzle set and solver mode.
+ * Each operation loads the next puzzle of the set into a reused model and
+ * solves it, so the score is puzzles solved per second.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+    @Param({ "easy", "hard", "adversarial", "near-empty" })
+    public String set;
+
+    @Param({ "BITMASK", "DANCING_LINKS", "PROPAGATION" })
+    public String mode;
+
+    private EngineHarness engine;
+
+    /**
+     * Loads the puzzle set and creates the model.
+     */
+    @Setup
+    public void setUp() {
+        engine = EngineHarness.create();
+        engine.prepareSolve(set, mode);
+    }
+
+    /**
+     * Solves the next puzzle of the set.
+     *
+     * @return whether the puzzle was solved.
+     */
+    @Benchmark
+    public boolean solve() {
+        return engine.solveNext();
+    }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class measures BatchValidator on a batch of submitted 9x9 boards, with
+ * the Vector API and with the scalar path. Every invocation checks the whole
+ * batch and counts as one operation per board, so the score is boards
+ * validated per second.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@OperationsPerInvocation(ValidateBenchmark.BATCH)
+public class ValidateBenchmark {
+    /**
+     * The number of boards in the batch.
+     */
+    public static final int BATCH = 4096;
+
+    @Param({ "scalar", "vector" })
+    public String path;
+
+    private EngineHarness engine;
+
+    /**
+     * Packs the batch of boards.
+     */
+    @Setup
+    public void setUp() {
+        engine = EngineHarness.create();
+        engine.prepareValidate(BATCH, path.equals("vector"));
+    }
+
+    /**
+     * Checks every board of the batch.
+     *
+     * @return the results of the boards.
+     */
+    @Benchmark
+    public byte[] validate() {
+        return engine.validateBatch();
+    }
+}
@@ -1,5 +1,5 @@
 #!/bin/bash
 cd "src"
-javac --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml HomePage.java Sudoku.java SudokuApp.java SudokuController.java SudokuViewer.java 
-java --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml SudokuApp
-javadoc --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml -d "../docs" HomePage.java Sudoku.java SudokuApp.java SudokuController.java SudokuViewer.java 
+javac --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml,jdk.incubator.vector HomePage.java Sudoku.java SudokuApp.java SudokuController.java SudokuViewer.java BoardCanvas.java MoveHistory.java SudokuSolver.java BoardGeometry.java SolverMode.java Difficulty.java Technique.java DifficultyGrader.java Hint.java HintTask.java BitmaskSolver.java DancingLinksSolver.java PropagationSolver.java ParallelSolver.java Puzzle.java PuzzlePool.java SolveTask.java TimedTask.java PerfRecorder.java GenerateTask.java PuzzleFormat.java PuzzleCanonicalizer.java SolutionCache.java GameSnapshot.java GameSaver.java LatencyHistogram.java SudokuEvents.java EngineMetricsMXBean.java EngineMetrics.java BatchSolver.java PuzzleServer.java PuzzleLoadTest.java BatchValidator.java VectorBatchValidator.java BinaryPuzzleFormat.java BinaryPuzzleWriter.java BinaryPuzzleReader.java PuzzleConverter.java SudokuBenchmark.java 
+java --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml,jdk.incubator.vector SudokuApp
+javadoc --module-path "C:\Java\javafx-sdk-22.0.1\lib" --add-modules javafx.controls,javafx.fxml,jdk.incubator.vector -d "../docs" HomePage.java Sudoku.java SudokuApp.java SudokuController.java SudokuViewer.java BoardCanvas.java MoveHistory.java SudokuSolver.java BoardGeometry.java SolverMode.java Difficulty.java Technique.java DifficultyGrader.java Hint.java HintTask.java BitmaskSolver.java DancingLinksSolver.java PropagationSolver.java ParallelSolver.java Puzzle.java PuzzlePool.java SolveTask.java TimedTask.java PerfRecorder.java GenerateTask.java PuzzleFormat.java PuzzleCanonicalizer.java SolutionCache.java GameSnapshot.java GameSaver.java LatencyHistogram.java SudokuEvents.java EngineMetricsMXBean.java EngineMetrics.java BatchSolver.java PuzzleServer.java PuzzleLoadTest.java BatchValidator.java VectorBatchValidator.java BinaryPuzzleFormat.java BinaryPuzzleWriter.java BinaryPuzzleReader.java PuzzleConverter.java SudokuBenchmark.java 
@@ -0,0 +1,238 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class is a headless command line entry point that solves a stream of
+ * puzzles in the one-line text format (81 characters per line for 9x9).
+ * Puzzles are read from a file or standard input, solved on a pool of worker
+ * threads, and the solutions are written in the same order as the input.
+ * Lines that are not valid puzzles are written back as "invalid", and puzzles
+ * without a solution as "unsolvable". Empty lines and lines starting with '#'
+ * are skipped.
+ *
+ * Only a bounded window of puzzles is in flight at any time, and latencies go
+ * into a fixed-size histogram, so memory use stays flat for any input size.
+ * A summary with puzzles per second and latency percentiles is printed to
+ * standard error at the end.
+ *
+ * With --cache N the workers share a SolutionCache of N solutions, so a
+ * puzzle that was already solved, or one of its symmetry variants, is not
+ * solved again. The summary then also shows the cache hit rate.
+ *
+ * The engine metrics are registered over JMX, so a long batch can be watched
+ * with JConsole under sudoku:type=EngineMetrics.
+ *
+ * Usage: java BatchSolver [--threads N] [--solver MODE] [--cache N] [input|-] [output|-]
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BatchSolver {
+    // Puzzles queued or being solved per worker thread
+    private static final int WINDOW_PER_THREAD = 256;
+    private static final String INVALID = "invalid";
+    private static final String UNSOLVABLE = "unsolvable";
+
+    private final int threads;
+    private final SolverMode mode;
+    // Shared by all worker threads, null when not caching
+    private final SolutionCache cache;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    // Results written, only counted on the thread running run()
+    private long solvedCount;
+    private long unsolvableCount;
+    private long invalidCount;
+    // One model per worker thread and board size, reused for every puzzle
+    private final ThreadLocal<Sudoku[]> models = ThreadLocal.withInitial(() -> new Sudoku[26]);
+
+    /**
+     * Creates a batch solver.
+     *
+     * @param threads The number of worker threads.
+     * @param mode    The solver mode used for every puzzle.
+     */
+    public BatchSolver(int threads, SolverMode mode) {
+        this(threads, mode, null);
+    }
+
+    /**
+     * Creates a batch solver that looks puzzles up in a solution cache.
+     *
+     * @param threads The number of worker threads.
+     * @param mode    The solver mode used for every puzzle.
+     * @param cache   The cache shared by the workers, or null for none.
+     */
+    public BatchSolver(int threads, SolverMode mode, SolutionCache cache) {
+        this.threads = threads;
+        this.mode = mode;
+        this.cache = cache;
+    }
+
+    /**
+     * Parses the command line and solves the input.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if the input cannot be read or the output written.
+     */
+    public static void main(String[] args) throws IOException {
+        EngineMetrics.register();
+        int threads = Runtime.getRuntime().availableProcessors();
+        SolverMode mode = SolverMode.PROPAGATION;
+        SolutionCache cache = null;
+        String input = "-";
+        String output = "-";
+        int files = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                threads = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--solver") && i + 1 < args.length) {
+                mode = SolverMode.valueOf(args[++i].toUpperCase());
+            } else if (args[i].equals("--cache") && i + 1 < args.length) {
+                cache = new SolutionCache(Integer.parseInt(args[++i]));
+            } else if (files == 0) {
+                input = args[i];
+                files++;
+            } else {
+                output = args[i];
+                files++;
+            }
+        }
+
+        Reader reader = input.equals("-") ? new InputStreamReader(System.in, StandardCharsets.US_ASCII)
+                : Files.newBufferedReader(Paths.get(input), StandardCharsets.US_ASCII);
+        Writer writer = output.equals("-") ? new OutputStreamWriter(System.out, StandardCharsets.US_ASCII)
+                : Files.newBufferedWriter(Paths.get(output), StandardCharsets.US_ASCII);
+        try (BufferedReader in = new BufferedReader(reader, 1 << 16);
+                BufferedWriter out = new BufferedWriter(writer, 1 << 16)) {
+            new BatchSolver(threads, mode, cache).run(in, out);
+        }
+    }
+
+    /**
+     * Solves every puzzle from the reader and writes the results in order.
+     *
+     * @param in  The puzzle lines.
+     * @param out Receives one result line per puzzle.
+     * @throws IOException if reading or writing fails.
+     */
+    public void run(BufferedReader in, BufferedWriter out) throws IOException {
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<String>> window = new ArrayDeque<>();
+        int windowSize = threads * WINDOW_PER_THREAD;
+        long start = System.nanoTime();
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String puzzle = line.trim();
+                if (puzzle.isEmpty() || puzzle.startsWith("#")) {
+                    continue;
+                }
+                if (window.size() == windowSize) {
+                    writeResult(window.poll(), out);
+                }
+                window.add(workers.submit(() -> solveLine(puzzle)));
+            }
+            while (!window.isEmpty()) {
+                writeResult(window.poll(), out);
+            }
+            out.flush();
+        } finally {
+            workers.shutdownNow();
+        }
+        printSummary(System.nanoTime() - start);
+    }
+
+    /**
+     * Solves one puzzle line on a worker thread.
+     *
+     * @param line The puzzle text.
+     * @return the solution text, "invalid" or "unsolvable".
+     */
+    private String solveLine(String line) {
+        int size = PuzzleFormat.boardSizeOf(line.length());
+        if (size < 0) {
+            return INVALID;
+        }
+        Sudoku[] models = this.models.get();
+        Sudoku model = models[size];
+        try {
+            if (model == null) {
+                model = new Sudoku(PuzzleFormat.parse(line));
+                model.setSolverMode(mode);
+                model.setSolutionCache(cache);
+                models[size] = model;
+            } else {
+                PuzzleFormat.parse(line, model.getCells());
+            }
+        } catch (IllegalArgumentException e) {
+            return INVALID;
+        }
+
+        long start = System.nanoTime();
+        boolean solved = model.solve();
+        latencies.record(System.nanoTime() - start);
+        return solved ? PuzzleFormat.format(model.getCells()) : UNSOLVABLE;
+    }
+
+    /**
+     * Waits for the oldest result, counts it and writes it.
+     *
+     * @param result The future of the oldest puzzle in the window.
+     * @param out    The output writer.
+     * @throws IOException if writing fails.
+     */
+    private void writeResult(Future<String> result, BufferedWriter out) throws IOException {
+        try {
+            String text = result.get();
+            if (text.equals(INVALID)) {
+                invalidCount++;
+            } else if (text.equals(UNSOLVABLE)) {
+                unsolvableCount++;
+            } else {
+                solvedCount++;
+            }
+            out.write(text);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Solver failed", e.getCause());
+        }
+        out.newLine();
+    }
+
+    /**
+     * Prints the result counts, throughput and latency percentiles to
+     * standard error. The throughput counts solved puzzles only.
+     *
+     * @param nanos The total wall time in nanoseconds.
+     */
+    private void printSummary(long nanos) {
+        double seconds = nanos / 1e9;
+        long puzzles = solvedCount + unsolvableCount + invalidCount;
+        System.err.printf("Solved %d of %d puzzles in %.3f s with %d threads (%s): %.0f puzzles/s%n", solvedCount,
+                puzzles, seconds, threads, mode, solvedCount / seconds);
+        System.err.printf("%d unsolvable, %d invalid%n", unsolvableCount, invalidCount);
+        System.err.printf("Latency p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                latencies.getPercentile(0.50) / 1e3, latencies.getPercentile(0.90) / 1e3,
+                latencies.getPercentile(0.99) / 1e3, latencies.getPercentile(0.999) / 1e3,
+                latencies.getPercentile(1.0) / 1e3);
+        if (cache != null) {
+            System.err.printf("Cache hit rate %.1f%% (%d hits, %d misses), %d evictions%n",
+                    cache.getHitRate() * 100, cache.getHits(), cache.getMisses(), cache.getEvictions());
+        }
+    }
+}
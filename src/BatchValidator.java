@@ -0,0 +1,152 @@
+/**
+ * This class checks many submitted boards at once: whether any number is
+ * repeated in a row, column or subgrid, whether cells are still empty, and
+ * whether the filled cells match the solution. The boards are packed one
+ * after another in a single byte array in the flat board representation, so
+ * a batch of 9x9 boards is 81 bytes per board.
+ *
+ * When the JVM is started with --add-modules jdk.incubator.vector the boards
+ * are checked with SIMD instructions by VectorBatchValidator, several boards
+ * per vector. Otherwise, or with -Dsudoku.vector=false, the scalar path is
+ * used. Both paths give identical results.
+ *
+ * A number repeated in a unit is found without comparing cells pairwise:
+ * every number is turned into one bit, and the bits of a unit only add up to
+ * the same value as they OR to when no bit appears twice.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BatchValidator {
+    /**
+     * Result flag: a number is repeated in a row, column or subgrid.
+     */
+    public static final int CONFLICT = 1;
+
+    /**
+     * Result flag: the board has empty cells.
+     */
+    public static final int INCOMPLETE = 2;
+
+    /**
+     * Result flag: a filled cell does not match the solution.
+     */
+    public static final int WRONG = 4;
+
+    private static final boolean VECTOR_AVAILABLE = Boolean
+            .parseBoolean(System.getProperty("sudoku.vector", "true"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final int size;
+    private final int cellCount;
+    private final int[] unitCells;
+    // Null when the Vector API is not available
+    private final VectorBatchValidator vector;
+
+    /**
+     * Creates a validator for boards of one size.
+     *
+     * @param boardSize The number of rows and columns, 4, 9, 16 or 25.
+     * @throws IllegalArgumentException if the board size is not supported.
+     */
+    public BatchValidator(int boardSize) {
+        BoardGeometry geometry = BoardGeometry.of(boardSize);
+        size = boardSize;
+        cellCount = geometry.getCellCount();
+        unitCells = geometry.getUnitCells();
+        vector = VECTOR_AVAILABLE ? new VectorBatchValidator(geometry) : null;
+    }
+
+    /**
+     * Returns whether the Vector API is used.
+     *
+     * @return true if boards are checked with SIMD instructions.
+     */
+    public boolean isVectorized() {
+        return vector != null;
+    }
+
+    /**
+     * Returns the number of rows and columns of the boards.
+     *
+     * @return the board size.
+     */
+    public int getBoardSize() {
+        return size;
+    }
+
+    /**
+     * Checks a batch of boards, with the Vector API if it is available.
+     *
+     * @param boards    The packed flat boards, cell values from 0 for empty to
+     *                  the board size.
+     * @param solutions The packed solutions of the boards, or null to only
+     *                  check the rules and the empty cells.
+     * @param count     The number of boards to check.
+     * @param results   Receives for every board the OR of its CONFLICT,
+     *                  INCOMPLETE and WRONG flags, so 0 for a correctly
+     *                  solved board.
+     */
+    public void validate(byte[] boards, byte[] solutions, int count, byte[] results) {
+        if (vector == null) {
+            validateScalar(boards, solutions, count, results);
+            return;
+        }
+        checkLengths(boards, solutions, count, results);
+        vector.validate(boards, solutions, count, results);
+    }
+
+    /**
+     * Checks a batch of boards one cell at a time, without the Vector API.
+     *
+     * @param boards    The packed flat boards.
+     * @param solutions The packed solutions, or null.
+     * @param count     The number of boards to check.
+     * @param results   Receives the flags of every board.
+     */
+    public void validateScalar(byte[] boards, byte[] solutions, int count, byte[] results) {
+        checkLengths(boards, solutions, count, results);
+        for (int board = 0; board < count; board++) {
+            int offset = board * cellCount;
+            int result = 0;
+            for (int unit = 0; unit < unitCells.length; unit += size) {
+                int seen = 0;
+                int sum = 0;
+                for (int k = unit; k < unit + size; k++) {
+                    int bit = (1 << boards[offset + unitCells[k]]) >>> 1;
+                    seen |= bit;
+                    sum += bit;
+                }
+                if (seen != sum) {
+                    result |= CONFLICT;
+                    break;
+                }
+            }
+            for (int cell = offset; cell < offset + cellCount; cell++) {
+                if (boards[cell] == 0) {
+                    result |= INCOMPLETE;
+                } else if (solutions != null && boards[cell] != solutions[cell]) {
+                    result |= WRONG;
+                }
+            }
+            results[board] = (byte) result;
+        }
+    }
+
+    /**
+     * Checks that the arrays hold enough boards.
+     *
+     * @param boards    The packed flat boards.
+     * @param solutions The packed solutions, or null.
+     * @param count     The number of boards to check.
+     * @param results   The result array.
+     * @throws IllegalArgumentException if an array is too short.
+     */
+    private void checkLengths(byte[] boards, byte[] solutions, int count, byte[] results) {
+        long cells = (long) count * cellCount;
+        if (count < 0 || boards.length < cells || (solutions != null && solutions.length < cells)
+                || results.length < count) {
+            throw new IllegalArgumentException("Arrays too short for " + count + " boards of size " + size);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+import java.nio.ByteBuffer;
+
+/**
+ * This class describes the compact binary format for puzzle collections and
+ * packs and unpacks single boards.
+ *
+ * A file starts with a 16 byte header: the magic bytes "SDKB", a version byte,
+ * the board size, a flags byte (bit 0 set when every record also holds its
+ * solution), a reserved byte, and the number of records as a big-endian long.
+ * Records follow back to back with a fixed size. A record is the puzzle packed
+ * in row-major order with 4 bits per cell (5 bits for boards larger than
+ * 15x15), optionally followed by the solution packed the same way. A 9x9
+ * puzzle takes 41 bytes, or 82 bytes with its solution.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class BinaryPuzzleFormat {
+    /**
+     * Size of the file header in bytes.
+     */
+    public static final int HEADER_SIZE = 16;
+    /**
+     * Current format version.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Header flag set when records hold solutions.
+     */
+    public static final int FLAG_SOLUTIONS = 1;
+
+    private static final int MAGIC = ('S' << 24) | ('D' << 16) | ('K' << 8) | 'B';
+
+    private BinaryPuzzleFormat() {
+    }
+
+    /**
+     * Returns the number of bits used for each cell of a board size.
+     *
+     * @param boardSize The number of rows and columns of the board.
+     * @return 4 or 5.
+     */
+    public static int bitsPerCell(int boardSize) {
+        return boardSize <= 15 ? 4 : 5;
+    }
+
+    /**
+     * Returns the number of bytes of one packed board.
+     *
+     * @param boardSize The number of rows and columns of the board.
+     * @return the packed board size in bytes.
+     */
+    public static int packedSize(int boardSize) {
+        return (boardSize * boardSize * bitsPerCell(boardSize) + 7) / 8;
+    }
+
+    /**
+     * Writes a file header at the start of the buffer.
+     *
+     * @param header        The buffer, at least HEADER_SIZE bytes.
+     * @param boardSize     The board size of the records.
+     * @param withSolutions Whether records hold solutions.
+     * @param count         The number of records.
+     */
+    public static void writeHeader(ByteBuffer header, int boardSize, boolean withSolutions, long count) {
+        header.putInt(0, MAGIC);
+        header.put(4, (byte) VERSION);
+        header.put(5, (byte) boardSize);
+        header.put(6, (byte) (withSolutions ? FLAG_SOLUTIONS : 0));
+        header.put(7, (byte) 0);
+        header.putLong(8, count);
+    }
+
+    /**
+     * Checks the magic bytes and version of a file header.
+     *
+     * @param header The buffer holding the header.
+     * @throws IllegalArgumentException if it is not a supported puzzle file.
+     */
+    public static void checkHeader(ByteBuffer header) {
+        if (header.limit() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary puzzle file");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported puzzle file version: " + header.get(4));
+        }
+    }
+
+    /**
+     * Packs a board into the buffer at the given position.
+     *
+     * @param board  The board to pack.
+     * @param buffer The buffer receiving packedSize(board.length) bytes.
+     * @param offset The position of the first byte.
+     */
+    public static void pack(int[][] board, ByteBuffer buffer, int offset) {
+        int size = board.length;
+        int bits = bitsPerCell(size);
+        int accumulator = 0;
+        int filled = 0;
+        int position = offset;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                accumulator |= board[row][col] << filled;
+                filled += bits;
+                while (filled >= 8) {
+                    buffer.put(position++, (byte) accumulator);
+                    accumulator >>>= 8;
+                    filled -= 8;
+                }
+            }
+        }
+        if (filled > 0) {
+            buffer.put(position, (byte) accumulator);
+        }
+    }
+
+    /**
+     * Packs a flat board, one byte per cell in row-major order, into the
+     * buffer at the given position in the same layout as a 2D board.
+     *
+     * @param cells     The flat board to pack.
+     * @param boardSize The number of rows and columns of the board.
+     * @param buffer    The buffer receiving packedSize(boardSize) bytes.
+     * @param offset    The position of the first byte.
+     */
+    public static void pack(byte[] cells, int boardSize, ByteBuffer buffer, int offset) {
+        int bits = bitsPerCell(boardSize);
+        int accumulator = 0;
+        int filled = 0;
+        int position = offset;
+        for (int cell = 0; cell < boardSize * boardSize; cell++) {
+            accumulator |= cells[cell] << filled;
+            filled += bits;
+            while (filled >= 8) {
+                buffer.put(position++, (byte) accumulator);
+                accumulator >>>= 8;
+                filled -= 8;
+            }
+        }
+        if (filled > 0) {
+            buffer.put(position, (byte) accumulator);
+        }
+    }
+
+    /**
+     * Unpacks a board from the buffer into a flat board, one byte per cell in
+     * row-major order.
+     *
+     * @param buffer    The buffer holding the packed board.
+     * @param offset    The position of the first byte.
+     * @param cells     The flat board receiving the values.
+     * @param boardSize The number of rows and columns of the board.
+     */
+    public static void unpack(ByteBuffer buffer, int offset, byte[] cells, int boardSize) {
+        int bits = bitsPerCell(boardSize);
+        int mask = (1 << bits) - 1;
+        int accumulator = 0;
+        int available = 0;
+        int position = offset;
+        for (int cell = 0; cell < boardSize * boardSize; cell++) {
+            if (available < bits) {
+                accumulator |= (buffer.get(position++) & 0xFF) << available;
+                available += 8;
+            }
+            cells[cell] = (byte) (accumulator & mask);
+            accumulator >>>= bits;
+            available -= bits;
+        }
+    }
+
+    /**
+     * Unpacks a board from the buffer into an existing board without
+     * allocating.
+     *
+     * @param buffer The buffer holding the packed board.
+     * @param offset The position of the first byte.
+     * @param board  The board receiving the values, of the file's board size.
+     */
+    public static void unpack(ByteBuffer buffer, int offset, int[][] board) {
+        int size = board.length;
+        if (bitsPerCell(size) == 4) {
+            // Two cells per byte, low nibble first
+            int cell = 0;
+            int position = offset;
+            int cells = size * size;
+            while (cell < cells) {
+                int b = buffer.get(position++);
+                board[cell / size][cell % size] = b & 0xF;
+                cell++;
+                if (cell < cells) {
+                    board[cell / size][cell % size] = (b >>> 4) & 0xF;
+                    cell++;
+                }
+            }
+            return;
+        }
+
+        int accumulator = 0;
+        int available = 0;
+        int position = offset;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (available < 5) {
+                    accumulator |= (buffer.get(position++) & 0xFF) << available;
+                    available += 8;
+                }
+                board[row][col] = accumulator & 0x1F;
+                accumulator >>>= 5;
+                available -= 5;
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class reads a puzzle file in the binary format described by
+ * BinaryPuzzleFormat. The file is memory-mapped with NIO and records are
+ * decoded straight from the mapping into a board supplied by the caller,
+ * either a flat board or an int[][] board, so reading a puzzle does not
+ * allocate. Files larger than 2 GB are mapped in several segments, each
+ * holding a whole number of records.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BinaryPuzzleReader implements Closeable {
+    private final FileChannel channel;
+    private final int boardSize;
+    private final boolean withSolutions;
+    private final long count;
+    private final int packedSize;
+    private final int recordSize;
+    private final int recordsPerSegment;
+    private final MappedByteBuffer[] segments;
+
+    /**
+     * Opens and maps a puzzle file.
+     *
+     * @param path The file to read.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if it is not a valid puzzle file.
+     */
+    public BinaryPuzzleReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(BinaryPuzzleFormat.HEADER_SIZE);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header);
+            }
+            header.flip();
+            BinaryPuzzleFormat.checkHeader(header);
+            boardSize = header.get(5);
+            withSolutions = (header.get(6) & BinaryPuzzleFormat.FLAG_SOLUTIONS) != 0;
+            count = header.getLong(8);
+            if (boardSize != 4 && boardSize != 9 && boardSize != 16 && boardSize != 25) {
+                throw new IllegalArgumentException("Unsupported board size: " + boardSize);
+            }
+            if (count < 0) {
+                throw new IllegalArgumentException("Invalid puzzle count: " + count);
+            }
+
+            packedSize = BinaryPuzzleFormat.packedSize(boardSize);
+            recordSize = withSolutions ? 2 * packedSize : packedSize;
+            // Divided rather than multiplied, so a huge count cannot overflow
+            if (count > (channel.size() - BinaryPuzzleFormat.HEADER_SIZE) / recordSize) {
+                throw new IllegalArgumentException("Puzzle file is truncated");
+            }
+
+            recordsPerSegment = Integer.MAX_VALUE / recordSize;
+            int segmentCount = (int) ((count + recordsPerSegment - 1) / recordsPerSegment);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long first = (long) i * recordsPerSegment;
+                long records = Math.min(recordsPerSegment, count - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        BinaryPuzzleFormat.HEADER_SIZE + first * recordSize, records * recordSize);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of puzzles in the file.
+     *
+     * @return the record count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of rows and columns of the puzzles in the file.
+     *
+     * @return the board size.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns whether the records also hold their solutions.
+     *
+     * @return true if solutions can be read.
+     */
+    public boolean hasSolutions() {
+        return withSolutions;
+    }
+
+    /**
+     * Decodes a puzzle into an existing board.
+     *
+     * @param index The record index, from 0 to getCount() - 1.
+     * @param board The board receiving the values, of the file's board size.
+     */
+    public void readPuzzle(long index, int[][] board) {
+        decode(index, 0, board);
+    }
+
+    /**
+     * Decodes the solution of a puzzle into an existing board.
+     *
+     * @param index The record index, from 0 to getCount() - 1.
+     * @param board The board receiving the values, of the file's board size.
+     * @throws IllegalStateException if the file holds no solutions.
+     */
+    public void readSolution(long index, int[][] board) {
+        if (!withSolutions) {
+            throw new IllegalStateException("Puzzle file has no solutions");
+        }
+        decode(index, packedSize, board);
+    }
+
+    /**
+     * Decodes a puzzle into an existing flat board.
+     *
+     * @param index The record index, from 0 to getCount() - 1.
+     * @param cells The flat board receiving the values, of the file's board
+     *              size.
+     */
+    public void readPuzzle(long index, byte[] cells) {
+        decode(index, 0, cells);
+    }
+
+    /**
+     * Decodes the solution of a puzzle into an existing flat board.
+     *
+     * @param index The record index, from 0 to getCount() - 1.
+     * @param cells The flat board receiving the values, of the file's board
+     *              size.
+     * @throws IllegalStateException if the file holds no solutions.
+     */
+    public void readSolution(long index, byte[] cells) {
+        if (!withSolutions) {
+            throw new IllegalStateException("Puzzle file has no solutions");
+        }
+        decode(index, packedSize, cells);
+    }
+
+    /**
+     * Releases the file. The mappings stay valid until they are garbage
+     * collected, but should not be used after closing.
+     *
+     * @throws IOException if closing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Decodes one packed board of a record.
+     *
+     * @param index  The record index.
+     * @param offset The offset of the board within the record.
+     * @param board  The board receiving the values.
+     */
+    private void decode(long index, int offset, int[][] board) {
+        if (board.length != boardSize) {
+            throw new IllegalArgumentException("Board size does not match the file");
+        }
+        BinaryPuzzleFormat.unpack(segmentOf(index), positionOf(index, offset), board);
+    }
+
+    /**
+     * Decodes one packed board of a record into a flat board.
+     *
+     * @param index  The record index.
+     * @param offset The offset of the board within the record.
+     * @param cells  The flat board receiving the values.
+     */
+    private void decode(long index, int offset, byte[] cells) {
+        if (cells.length != boardSize * boardSize) {
+            throw new IllegalArgumentException("Board size does not match the file");
+        }
+        BinaryPuzzleFormat.unpack(segmentOf(index), positionOf(index, offset), cells, boardSize);
+    }
+
+    /**
+     * Returns the mapped segment holding a record.
+     *
+     * @param index The record index.
+     * @return the segment.
+     * @throws IndexOutOfBoundsException if there is no such record.
+     */
+    private MappedByteBuffer segmentOf(long index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + count);
+        }
+        return segments[(int) (index / recordsPerSegment)];
+    }
+
+    /**
+     * Returns the position of a board within its segment.
+     *
+     * @param index  The record index.
+     * @param offset The offset of the board within the record.
+     * @return the position of the board's first byte.
+     */
+    private int positionOf(long index, int offset) {
+        return (int) (index % recordsPerSegment) * recordSize + offset;
+    }
+}
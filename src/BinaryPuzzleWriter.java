@@ -0,0 +1,107 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * This class writes puzzles to a file in the binary format described by
+ * BinaryPuzzleFormat. Records are collected in a buffer and written in large
+ * blocks, and the record count in the header is filled in on close.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BinaryPuzzleWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final int boardSize;
+    private final boolean withSolutions;
+    private final int packedSize;
+    private final ByteBuffer buffer;
+    private long count;
+
+    /**
+     * Creates or replaces a puzzle file.
+     *
+     * @param path          The file to write.
+     * @param boardSize     The number of rows and columns of every puzzle.
+     * @param withSolutions Whether every record also holds the solution.
+     * @throws IOException if the file cannot be created.
+     */
+    public BinaryPuzzleWriter(Path path, int boardSize, boolean withSolutions) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.boardSize = boardSize;
+        this.withSolutions = withSolutions;
+        this.packedSize = BinaryPuzzleFormat.packedSize(boardSize);
+        int recordSize = withSolutions ? 2 * packedSize : packedSize;
+        this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE / recordSize, 1) * recordSize);
+        channel.position(BinaryPuzzleFormat.HEADER_SIZE);
+    }
+
+    /**
+     * Appends one puzzle to the file.
+     *
+     * @param puzzle   The puzzle, 0 for empty cells.
+     * @param solution The solution, or null if the file has no solutions.
+     * @throws IOException if writing fails.
+     */
+    public void write(int[][] puzzle, int[][] solution) throws IOException {
+        if (puzzle.length != boardSize || (withSolutions && solution == null)) {
+            throw new IllegalArgumentException("Puzzle does not match the file format");
+        }
+        int recordSize = withSolutions ? 2 * packedSize : packedSize;
+        if (buffer.remaining() < recordSize) {
+            flush();
+        }
+        int position = buffer.position();
+        BinaryPuzzleFormat.pack(puzzle, buffer, position);
+        if (withSolutions) {
+            BinaryPuzzleFormat.pack(solution, buffer, position + packedSize);
+        }
+        buffer.position(position + recordSize);
+        count++;
+    }
+
+    /**
+     * Returns the number of puzzles written so far.
+     *
+     * @return the record count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Writes the remaining records and the header, then closes the file.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            ByteBuffer header = ByteBuffer.allocate(BinaryPuzzleFormat.HEADER_SIZE);
+            BinaryPuzzleFormat.writeHeader(header, boardSize, withSolutions, count);
+            channel.write(header, 0);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     *
+     * @throws IOException if writing fails.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
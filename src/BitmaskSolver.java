@@ -0,0 +1,169 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class solves a Sudoku board with a backtracking search that keeps the
+ * digits already used in every row, column and subgrid as bitmasks. Bit
+ * (num - 1) of a mask is set when num is present, so checking whether a digit
+ * can go in a cell is a single AND instead of a scan over 27 cells.
+ * The masks are updated incrementally as digits are placed and removed.
+ *
+ * Empty cells are visited in row-major order and digits are tried in
+ * ascending order, so this solver fills the board exactly the same way as the
+ * original backtracking search.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BitmaskSolver implements SudokuSolver {
+    // The stop flag is only read once every this many cells tried
+    private static final int STOP_CHECK_INTERVAL = 1024;
+
+    private int size;
+    private BoardGeometry geometry;
+    private int[] rowUsed;
+    private int[] colUsed;
+    private int[] boxUsed;
+    // Every empty cell in row-major order
+    private int[] emptyCells;
+    private int emptyCount;
+    private byte[] cells;
+    private AtomicBoolean stopFlag;
+    private boolean stopped;
+    private int steps;
+    private long nodes;
+    private long backtracks;
+
+    /**
+     * Solves the given flat board in place using the bitmask search.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    @Override
+    public boolean solve(byte[] cells) {
+        stopped = false;
+        steps = 0;
+        // Givens that already repeat a digit cannot be completed
+        boolean solved = prepare(cells) && search(0);
+        this.cells = null;
+        return solved;
+    }
+
+    /**
+     * Sets a flag that stops the search as soon as it becomes true.
+     *
+     * @param flag The shared stop flag, or null to never stop.
+     */
+    @Override
+    public void setStopFlag(AtomicBoolean flag) {
+        stopFlag = flag;
+    }
+
+    /**
+     * Returns the number of digits tried in a cell so far.
+     *
+     * @return the node count.
+     */
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of tried digits taken back so far.
+     *
+     * @return the backtrack count.
+     */
+    @Override
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    /**
+     * Builds the used-digit masks and the list of empty cells for the board.
+     * The arrays are reused between solves of the same size.
+     *
+     * @param cells The flat board.
+     * @return false if a digit is given twice in a row, column or subgrid.
+     */
+    private boolean prepare(byte[] cells) {
+        if (geometry == null || geometry.getCellCount() != cells.length) {
+            geometry = BoardGeometry.ofCells(cells.length);
+            size = geometry.getSize();
+            rowUsed = new int[size];
+            colUsed = new int[size];
+            boxUsed = new int[size];
+            emptyCells = new int[cells.length];
+        } else {
+            for (int i = 0; i < size; i++) {
+                rowUsed[i] = 0;
+                colUsed[i] = 0;
+                boxUsed[i] = 0;
+            }
+        }
+
+        this.cells = cells;
+        emptyCount = 0;
+        for (int cell = 0; cell < cells.length; cell++) {
+            int num = cells[cell];
+            if (num == 0) {
+                emptyCells[emptyCount++] = cell;
+            } else {
+                int bit = 1 << (num - 1);
+                int row = geometry.rowOf(cell);
+                int col = geometry.colOf(cell);
+                int box = geometry.boxOf(cell);
+                if (((rowUsed[row] | colUsed[col] | boxUsed[box]) & bit) != 0) {
+                    return false;
+                }
+                rowUsed[row] |= bit;
+                colUsed[col] |= bit;
+                boxUsed[box] |= bit;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the empty cells from index k onwards.
+     *
+     * @param k The index of the next empty cell to fill.
+     * @return true if all remaining cells could be filled.
+     */
+    private boolean search(int k) {
+        if (k == emptyCount) {
+            return true;
+        }
+        if (++steps == STOP_CHECK_INTERVAL) {
+            steps = 0;
+            stopped = stopFlag != null && stopFlag.get();
+        }
+        int cell = emptyCells[k];
+        int row = geometry.rowOf(cell);
+        int col = geometry.colOf(cell);
+        int box = geometry.boxOf(cell);
+        int free = ~(rowUsed[row] | colUsed[col] | boxUsed[box]) & ((1 << size) - 1);
+        while (free != 0) {
+            int bit = free & -free;
+            free ^= bit;
+
+            rowUsed[row] |= bit;
+            colUsed[col] |= bit;
+            boxUsed[box] |= bit;
+            cells[cell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+            nodes++;
+            if (search(k + 1)) {
+                return true;
+            }
+            rowUsed[row] ^= bit;
+            colUsed[col] ^= bit;
+            boxUsed[box] ^= bit;
+            backtracks++;
+            if (stopped) {
+                break;
+            }
+        }
+        cells[cell] = 0;
+        return false;
+    }
+}
@@ -0,0 +1,492 @@
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * This class draws the Sudoku board on a single Canvas instead of one text
+ * field per cell, and maps mouse clicks and key presses to cells. It keeps
+ * the numbers, the starting numbers and the colour of every cell in flat
+ * arrays in row-major order.
+ *
+ * Changing a cell only marks it dirty. The dirty cells are repainted together
+ * once per pulse, so a step that changes many cells, such as checking the
+ * board, is drawn in one go and cells that did not change are not drawn
+ * again. The grid lines are the gaps left between the cells, so repainting a
+ * cell never touches them.
+ *
+ * A number is typed into the selected cell. On boards larger than 9x9 a digit
+ * typed shortly after another one in the same cell is appended to it when the
+ * result is still on the board, so 16 is typed as 1 then 6. The listener is
+ * told that the second digit was appended, so both digits can be undone as
+ * one step.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class BoardCanvas extends Region {
+    /**
+     * The colour of a cell that the player can change.
+     */
+    public enum CellState {
+        /** No colour, white. */
+        PLAIN,
+        /** Checked and correct, green. */
+        CORRECT,
+        /** Checked and wrong, red. */
+        WRONG,
+        /** The cell of the last hint, blue. */
+        HINT
+    }
+
+    /**
+     * Notified when the player changes the number of a cell.
+     */
+    public interface CellListener {
+        /**
+         * Called after the player changed a cell.
+         *
+         * @param cell     The cell index in row-major order.
+         * @param oldValue The number before the change, 0 for empty.
+         * @param newValue The number after the change, 0 for empty.
+         * @param appended Whether a digit was appended to the number the
+         *                 player had just typed into the same cell.
+         */
+        void cellChanged(int cell, int oldValue, int newValue, boolean appended);
+    }
+
+    private static final int THIN_LINE = 1;
+    private static final int THICK_LINE = 3;
+    // Digits typed within this time in the same cell form one number
+    private static final long APPEND_NANOS = 1_000_000_000L;
+
+    private static final Color LINE_COLOR = Color.BLACK;
+    private static final Color TEXT_COLOR = Color.BLACK;
+    private static final Color SELECTED_COLOR = Color.web("#3498DB");
+    private static final Color[] STATE_COLORS = { Color.WHITE, Color.web("#66FF66"), Color.web("#FF6666"),
+            Color.web("#99CCFF") };
+    private static final Color GIVEN_COLOR = Color.LIGHTGRAY;
+    private static final CellState[] STATES = CellState.values();
+
+    private final int boardSize;
+    private final int cellSize;
+    // Position of the left (or top) edge of each column (or row)
+    private final int[] origins;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final Font entryFont;
+    private final Font givenFont;
+
+    private final byte[] values;
+    private final boolean[] given;
+    private final byte[] states;
+    private int selected = -1;
+    private CellListener listener;
+
+    // Cells to repaint in the next pulse
+    private final boolean[] dirty;
+    private final int[] dirtyCells;
+    private int dirtyCount;
+    private final AnimationTimer repaintTimer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            stop();
+            repaintDirty();
+        }
+    };
+
+    // The cell and time of the last digit typed, for numbers above 9
+    private int lastTypedCell = -1;
+    private long lastTypedTime;
+    // Whether the last digit typed changed the cell
+    private boolean lastTypedEntered;
+
+    /**
+     * Creates an empty board and draws it. The board may be created off the
+     * FX thread as long as it is not shown yet.
+     *
+     * @param boardSize The number of rows and columns, for example 9.
+     * @param cellSize  The width and height of a cell in pixels.
+     */
+    public BoardCanvas(int boardSize, int cellSize) {
+        this.boardSize = boardSize;
+        this.cellSize = cellSize;
+        int subgridSize = (int) Math.sqrt(boardSize);
+        origins = new int[boardSize];
+        int position = THICK_LINE;
+        for (int i = 0; i < boardSize; i++) {
+            origins[i] = position;
+            position += cellSize + ((i + 1) % subgridSize == 0 ? THICK_LINE : THIN_LINE);
+        }
+        canvas = new Canvas(position, position);
+        graphics = canvas.getGraphicsContext2D();
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.CENTER);
+        entryFont = Font.font(null, FontWeight.NORMAL, cellSize / 2);
+        givenFont = Font.font(null, FontWeight.BOLD, cellSize / 2);
+
+        int cells = boardSize * boardSize;
+        values = new byte[cells];
+        given = new boolean[cells];
+        states = new byte[cells];
+        dirty = new boolean[cells];
+        dirtyCells = new int[cells];
+
+        getChildren().add(canvas);
+        setFocusTraversable(true);
+        addEventHandler(MouseEvent.MOUSE_PRESSED, this::mousePressed);
+        addEventHandler(KeyEvent.KEY_PRESSED, this::keyPressed);
+        addEventHandler(KeyEvent.KEY_TYPED, this::keyTyped);
+        repaintAll();
+    }
+
+    /**
+     * Returns the width of the board in pixels.
+     *
+     * @return the preferred width.
+     */
+    @Override
+    protected double computePrefWidth(double height) {
+        return snappedLeftInset() + canvas.getWidth() + snappedRightInset();
+    }
+
+    /**
+     * Returns the height of the board in pixels.
+     *
+     * @return the preferred height.
+     */
+    @Override
+    protected double computePrefHeight(double width) {
+        return snappedTopInset() + canvas.getHeight() + snappedBottomInset();
+    }
+
+    /**
+     * Keeps the canvas at its own size in the top left corner.
+     */
+    @Override
+    protected void layoutChildren() {
+        canvas.relocate(snappedLeftInset(), snappedTopInset());
+    }
+
+    /**
+     * Sets what to call when the player changes a cell.
+     *
+     * @param listener The listener, or null for none.
+     */
+    public void setCellListener(CellListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of rows and columns.
+     *
+     * @return the board size.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns the number in a cell.
+     *
+     * @param cell The cell index in row-major order.
+     * @return the number, 0 for empty.
+     */
+    public int getValue(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * Sets the number in a cell without notifying the listener.
+     *
+     * @param cell  The cell index in row-major order.
+     * @param value The number, 0 for empty.
+     */
+    public void setValue(int cell, int value) {
+        if (values[cell] != value) {
+            values[cell] = (byte) value;
+            markDirty(cell);
+        }
+    }
+
+    /**
+     * Sets the number in a cell as if the player entered it, notifying the
+     * listener if it changed. Starting numbers are not changed.
+     *
+     * @param cell  The cell index in row-major order.
+     * @param value The number, 0 for empty.
+     */
+    public void enterValue(int cell, int value) {
+        enterValue(cell, value, false);
+    }
+
+    /**
+     * Sets the number in a cell as if the player entered it.
+     *
+     * @param cell     The cell index in row-major order.
+     * @param value    The number, 0 for empty.
+     * @param appended Whether a digit was appended to the number just typed.
+     * @return true if the cell changed.
+     */
+    private boolean enterValue(int cell, int value, boolean appended) {
+        int oldValue = values[cell];
+        if (given[cell] || oldValue == value) {
+            return false;
+        }
+        setValue(cell, value);
+        if (listener != null) {
+            listener.cellChanged(cell, oldValue, value, appended);
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a cell holds a starting number, which the player cannot
+     * change.
+     *
+     * @param cell The cell index in row-major order.
+     * @return true for a starting number.
+     */
+    public boolean isGiven(int cell) {
+        return given[cell];
+    }
+
+    /**
+     * Sets the colour of a cell the player can change. Starting numbers are
+     * always grey.
+     *
+     * @param cell  The cell index in row-major order.
+     * @param state The colour.
+     */
+    public void setState(int cell, CellState state) {
+        if (states[cell] != state.ordinal()) {
+            states[cell] = (byte) state.ordinal();
+            markDirty(cell);
+        }
+    }
+
+    /**
+     * Returns the colour of a cell.
+     *
+     * @param cell The cell index in row-major order.
+     * @return the colour.
+     */
+    public CellState getState(int cell) {
+        return STATES[states[cell]];
+    }
+
+    /**
+     * Shows a new puzzle. Its numbers become the starting numbers, the other
+     * cells are emptied and every colour is removed.
+     *
+     * @param puzzle The 2D array of the starting numbers, 0 for empty cells.
+     */
+    public void loadPuzzle(int[][] puzzle) {
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                int cell = row * boardSize + col;
+                int value = puzzle[row][col];
+                boolean isGiven = value != 0;
+                if (values[cell] != value || given[cell] != isGiven || states[cell] != 0) {
+                    values[cell] = (byte) value;
+                    given[cell] = isGiven;
+                    states[cell] = 0;
+                    markDirty(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the selected cell.
+     *
+     * @return the cell index, or -1 if no cell is selected.
+     */
+    public int getSelectedCell() {
+        return selected;
+    }
+
+    /**
+     * Selects a cell, which receives typed numbers.
+     *
+     * @param cell The cell index, or -1 for none.
+     */
+    public void select(int cell) {
+        if (cell == selected) {
+            return;
+        }
+        if (selected >= 0) {
+            markDirty(selected);
+        }
+        selected = cell;
+        if (cell >= 0) {
+            markDirty(cell);
+        }
+    }
+
+    /**
+     * Selects the cell under the mouse.
+     *
+     * @param event The mouse event.
+     */
+    private void mousePressed(MouseEvent event) {
+        int col = indexAt(event.getX() - snappedLeftInset());
+        int row = indexAt(event.getY() - snappedTopInset());
+        if (row >= 0 && col >= 0) {
+            select(row * boardSize + col);
+        }
+        requestFocus();
+    }
+
+    /**
+     * Returns the row or column at a position on the canvas.
+     *
+     * @param position The x or y position in pixels.
+     * @return the index, or -1 if the position is on a line or outside.
+     */
+    private int indexAt(double position) {
+        for (int i = 0; i < boardSize; i++) {
+            if (position >= origins[i] && position < origins[i] + cellSize) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the selection with the arrow keys and empties the selected cell
+     * with backspace or delete.
+     *
+     * @param event The key event.
+     */
+    private void keyPressed(KeyEvent event) {
+        if (selected < 0) {
+            return;
+        }
+        int row = selected / boardSize;
+        int col = selected % boardSize;
+        switch (event.getCode()) {
+            case UP:
+                row = (row + boardSize - 1) % boardSize;
+                break;
+            case DOWN:
+                row = (row + 1) % boardSize;
+                break;
+            case LEFT:
+                col = (col + boardSize - 1) % boardSize;
+                break;
+            case RIGHT:
+                col = (col + 1) % boardSize;
+                break;
+            case BACK_SPACE:
+            case DELETE:
+                enterValue(selected, 0);
+                lastTypedCell = -1;
+                event.consume();
+                return;
+            default:
+                return;
+        }
+        select(row * boardSize + col);
+        lastTypedCell = -1;
+        event.consume();
+    }
+
+    /**
+     * Enters a typed digit into the selected cell.
+     *
+     * @param event The key event.
+     */
+    private void keyTyped(KeyEvent event) {
+        String character = event.getCharacter();
+        if (selected < 0 || given[selected] || character.length() != 1) {
+            return;
+        }
+        int digit = character.charAt(0) - '0';
+        if (digit < 0 || digit > 9) {
+            return;
+        }
+        event.consume();
+
+        long now = System.nanoTime();
+        int value = digit;
+        boolean appended = false;
+        if (lastTypedCell == selected && now - lastTypedTime < APPEND_NANOS
+                && values[selected] * 10 + digit <= boardSize) {
+            value = values[selected] * 10 + digit;
+            // Only linked to the previous move if the first digit made one
+            appended = lastTypedEntered;
+        }
+        lastTypedCell = selected;
+        lastTypedTime = now;
+        lastTypedEntered = value >= 1 && value <= boardSize && enterValue(selected, value, appended);
+    }
+
+    /**
+     * Marks a cell to be repainted in the next pulse.
+     *
+     * @param cell The cell index in row-major order.
+     */
+    private void markDirty(int cell) {
+        if (dirty[cell]) {
+            return;
+        }
+        dirty[cell] = true;
+        dirtyCells[dirtyCount++] = cell;
+        if (dirtyCount == 1) {
+            repaintTimer.start();
+        }
+    }
+
+    /**
+     * Repaints the dirty cells.
+     */
+    private void repaintDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyCells[i];
+            dirty[cell] = false;
+            paintCell(cell);
+        }
+        dirtyCount = 0;
+    }
+
+    /**
+     * Paints the lines and every cell.
+     */
+    private void repaintAll() {
+        graphics.setFill(LINE_COLOR);
+        graphics.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+        for (int cell = 0; cell < values.length; cell++) {
+            paintCell(cell);
+        }
+    }
+
+    /**
+     * Paints one cell: its colour, the selection frame and its number.
+     *
+     * @param cell The cell index in row-major order.
+     */
+    private void paintCell(int cell) {
+        int x = origins[cell % boardSize];
+        int y = origins[cell / boardSize];
+        graphics.setFill(given[cell] ? GIVEN_COLOR : STATE_COLORS[states[cell]]);
+        graphics.fillRect(x, y, cellSize, cellSize);
+        if (cell == selected) {
+            graphics.setStroke(SELECTED_COLOR);
+            graphics.setLineWidth(2);
+            graphics.strokeRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+        }
+        if (values[cell] != 0) {
+            graphics.setFill(TEXT_COLOR);
+            graphics.setFont(given[cell] ? givenFont : entryFont);
+            graphics.fillText(Integer.toString(values[cell]), x + cellSize / 2.0, y + cellSize / 2.0);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * This class holds the precomputed tables for one board size of the flat
+ * board representation. A flat board is a byte array with one entry per cell
+ * in row-major order, so the cell in row r and column c is at index
+ * r * size + c and a whole board is copied with a single arraycopy.
+ *
+ * For every cell the tables give its row, column and subgrid and the list of
+ * its peers, the other cells sharing a row, column or subgrid (20 for a 9x9
+ * board). The cells of every row, column and subgrid are listed as units.
+ * There is one shared instance per supported board size, created when the
+ * class is loaded, and the returned arrays must not be changed.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class BoardGeometry {
+    private static final int MIN_SUBGRID_SIZE = 2;
+    private static final int MAX_SUBGRID_SIZE = 5;
+    private static final BoardGeometry[] GEOMETRIES = new BoardGeometry[MAX_SUBGRID_SIZE + 1];
+
+    static {
+        for (int s = MIN_SUBGRID_SIZE; s <= MAX_SUBGRID_SIZE; s++) {
+            GEOMETRIES[s] = new BoardGeometry(s);
+        }
+    }
+
+    private final int size;
+    private final int subgridSize;
+    private final int cellCount;
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] peers;
+    // The cells of every row, then every column, then every subgrid
+    private final int[] unitCells;
+
+    /**
+     * Builds the tables for a board with the given subgrid size.
+     *
+     * @param subgridSize The size of a subgrid.
+     */
+    private BoardGeometry(int subgridSize) {
+        this.subgridSize = subgridSize;
+        this.size = subgridSize * subgridSize;
+        this.cellCount = size * size;
+        rowOf = new int[cellCount];
+        colOf = new int[cellCount];
+        boxOf = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            rowOf[cell] = cell / size;
+            colOf[cell] = cell % size;
+            boxOf[cell] = (rowOf[cell] / subgridSize) * subgridSize + colOf[cell] / subgridSize;
+        }
+
+        unitCells = new int[3 * cellCount];
+        for (int i = 0; i < size; i++) {
+            for (int k = 0; k < size; k++) {
+                unitCells[i * size + k] = i * size + k;
+                unitCells[(size + i) * size + k] = k * size + i;
+                int row = (i / subgridSize) * subgridSize + k / subgridSize;
+                int col = (i % subgridSize) * subgridSize + k % subgridSize;
+                unitCells[(2 * size + i) * size + k] = row * size + col;
+            }
+        }
+
+        // Peers in ascending cell order
+        int peerCount = 3 * (size - 1) - 2 * (subgridSize - 1);
+        peers = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) {
+            int[] cellPeers = new int[peerCount];
+            int count = 0;
+            for (int other = 0; other < cellCount; other++) {
+                if (other != cell && (rowOf[other] == rowOf[cell] || colOf[other] == colOf[cell]
+                        || boxOf[other] == boxOf[cell])) {
+                    cellPeers[count++] = other;
+                }
+            }
+            peers[cell] = cellPeers;
+        }
+    }
+
+    /**
+     * Returns the tables for a board size.
+     *
+     * @param boardSize The number of rows and columns, 4, 9, 16 or 25.
+     * @return the shared geometry.
+     * @throws IllegalArgumentException if the board size is not supported.
+     */
+    public static BoardGeometry of(int boardSize) {
+        int subgridSize = (int) Math.sqrt(boardSize);
+        if (subgridSize * subgridSize != boardSize || subgridSize < MIN_SUBGRID_SIZE
+                || subgridSize > MAX_SUBGRID_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + boardSize);
+        }
+        return GEOMETRIES[subgridSize];
+    }
+
+    /**
+     * Returns the tables for a flat board of the given length.
+     *
+     * @param cellCount The number of cells, for example 81.
+     * @return the shared geometry.
+     * @throws IllegalArgumentException if no supported board has that many
+     *                                  cells.
+     */
+    public static BoardGeometry ofCells(int cellCount) {
+        return of((int) Math.sqrt(cellCount));
+    }
+
+    /**
+     * Returns the number of rows and columns of the board.
+     *
+     * @return the board size.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of rows and columns of a subgrid.
+     *
+     * @return the subgrid size.
+     */
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    /**
+     * Returns the number of cells of the board.
+     *
+     * @return the size of a flat board.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Returns the row of a cell.
+     *
+     * @param cell The cell index.
+     * @return the row index.
+     */
+    public int rowOf(int cell) {
+        return rowOf[cell];
+    }
+
+    /**
+     * Returns the column of a cell.
+     *
+     * @param cell The cell index.
+     * @return the column index.
+     */
+    public int colOf(int cell) {
+        return colOf[cell];
+    }
+
+    /**
+     * Returns the subgrid of a cell, numbered in row-major order.
+     *
+     * @param cell The cell index.
+     * @return the subgrid index.
+     */
+    public int boxOf(int cell) {
+        return boxOf[cell];
+    }
+
+    /**
+     * Returns the peers of a cell in ascending order.
+     *
+     * @param cell The cell index.
+     * @return the shared array of peer cell indexes.
+     */
+    public int[] getPeers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * Returns the cells of all units: size cells for each row, then for each
+     * column, then for each subgrid. Unit u holds the cells from index
+     * u * size to u * size + size - 1.
+     *
+     * @return the shared array of unit cells.
+     */
+    public int[] getUnitCells() {
+        return unitCells;
+    }
+
+    /**
+     * Copies a 2D board into a flat board.
+     *
+     * @param board The 2D board.
+     * @param cells The flat board receiving the values.
+     */
+    public void flatten(int[][] board, byte[] cells) {
+        for (int row = 0, cell = 0; row < size; row++) {
+            int[] values = board[row];
+            for (int col = 0; col < size; col++) {
+                cells[cell++] = (byte) values[col];
+            }
+        }
+    }
+
+    /**
+     * Copies a flat board into a 2D board.
+     *
+     * @param cells The flat board.
+     * @param board The 2D board receiving the values.
+     */
+    public void unflatten(byte[] cells, int[][] board) {
+        for (int row = 0, cell = 0; row < size; row++) {
+            int[] values = board[row];
+            for (int col = 0; col < size; col++) {
+                values[col] = cells[cell++];
+            }
+        }
+    }
+
+    /**
+     * Creates a flat copy of a 2D board.
+     *
+     * @param board The 2D board.
+     * @return a new flat board.
+     */
+    public byte[] toCells(int[][] board) {
+        byte[] cells = new byte[cellCount];
+        flatten(board, cells);
+        return cells;
+    }
+
+    /**
+     * Creates a 2D copy of a flat board.
+     *
+     * @param cells The flat board.
+     * @return a new 2D board.
+     */
+    public int[][] toBoard(byte[] cells) {
+        int[][] board = new int[size][size];
+        unflatten(cells, board);
+        return board;
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * This enum lists the difficulty grades of a puzzle. A puzzle's grade is the
+ * grade of the hardest technique a human-style solver needs to finish it, as
+ * decided by DifficultyGrader. Puzzles that the listed techniques cannot
+ * finish need trial and error and are graded EXPERT.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public enum Difficulty {
+    /**
+     * Solvable with naked and hidden singles only.
+     */
+    EASY("Easy"),
+
+    /**
+     * Needs locked candidates or naked and hidden pairs.
+     */
+    MEDIUM("Medium"),
+
+    /**
+     * Needs naked triples or X-wings.
+     */
+    HARD("Hard"),
+
+    /**
+     * Cannot be finished with the techniques above.
+     */
+    EXPERT("Expert");
+
+    private final String displayName;
+
+    /**
+     * Creates a grade.
+     *
+     * @param displayName The name shown to the player.
+     */
+    Difficulty(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Returns the name shown to the player, for example in a choice box.
+     *
+     * @return the display name.
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,657 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class grades a puzzle by solving it the way a person would, using
+ * only logical techniques and never guessing. Every step applies the simplest
+ * technique that makes progress, from naked singles up to X-wings (see
+ * Technique), and the puzzle's grade is the grade of the hardest technique it
+ * needed. A puzzle that these techniques cannot finish is graded EXPERT.
+ *
+ * Every empty cell keeps a bitmask of its remaining candidates, and the
+ * units and peers come from the shared BoardGeometry tables, so grading a
+ * 9x9 puzzle takes microseconds and does not allocate once the working
+ * arrays exist. A grader is not thread-safe; use one per thread.
+ *
+ * The same steps also find hints: findHint() stops at the first cell that
+ * can be filled and tells which technique led to it.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class DifficultyGrader {
+    private BoardGeometry geometry;
+    private int size;
+    private int fullMask;
+    private int[] unitCells;
+    private int[] value;
+    private int[] candidates;
+    // Positions of one digit within a unit, one bit per position
+    private int[] positions;
+    private int emptyCount;
+    private boolean contradiction;
+    private Technique hardest;
+    private AtomicBoolean stopFlag;
+    // The digit of the single found by findNakedSingle() or findHiddenSingle()
+    private int foundDigit;
+
+    /**
+     * Grades a puzzle. The board itself is not changed.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return the grade of the hardest technique needed, or EXPERT if the
+     *         techniques cannot finish the puzzle.
+     */
+    public Difficulty grade(byte[] cells) {
+        load(cells);
+        while (emptyCount > 0 && !contradiction) {
+            Technique technique = step();
+            if (technique == null) {
+                return Difficulty.EXPERT;
+            }
+            if (hardest == null || technique.ordinal() > hardest.ordinal()) {
+                hardest = technique;
+            }
+        }
+        if (contradiction) {
+            return Difficulty.EXPERT;
+        }
+        return hardest == null ? Difficulty.EASY : hardest.getDifficulty();
+    }
+
+    /**
+     * Grades a 2D puzzle.
+     *
+     * @param board The 2D array of the puzzle, 0 for empty cells.
+     * @return the grade of the puzzle.
+     */
+    public Difficulty grade(int[][] board) {
+        return grade(BoardGeometry.of(board.length).toCells(board));
+    }
+
+    /**
+     * Finds the next cell a person could fill in by logic alone. Eliminations
+     * are applied until a naked or hidden single appears, and the hint names
+     * the hardest technique used on the way. The board is not changed.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return the hint, or null if the board is full, breaks the rules, cannot
+     *         be continued with these techniques, or the stop flag was set.
+     */
+    public Hint findHint(byte[] cells) {
+        load(cells);
+        while (emptyCount > 0 && !contradiction && (stopFlag == null || !stopFlag.get())) {
+            Technique technique = Technique.NAKED_SINGLE;
+            int cell = findNakedSingle();
+            if (cell < 0) {
+                technique = Technique.HIDDEN_SINGLE;
+                cell = findHiddenSingle();
+            }
+            if (cell >= 0) {
+                if (hardest == null || technique.ordinal() > hardest.ordinal()) {
+                    hardest = technique;
+                }
+                return new Hint(cell, foundDigit, hardest);
+            }
+            technique = eliminationStep();
+            if (technique == null) {
+                return null;
+            }
+            if (hardest == null || technique.ordinal() > hardest.ordinal()) {
+                hardest = technique;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets a flag that makes findHint() give up once it is set, so that a
+     * hint for a board that changed meanwhile can be abandoned.
+     *
+     * @param flag The flag to check, or null to never stop early.
+     */
+    public void setStopFlag(AtomicBoolean flag) {
+        stopFlag = flag;
+    }
+
+    /**
+     * Returns the hardest technique the last grade needed.
+     *
+     * @return the technique, or null if the board was already full.
+     */
+    public Technique getHardestTechnique() {
+        return hardest;
+    }
+
+    /**
+     * Loads the board into the candidate arrays and places its given digits.
+     *
+     * @param cells The flat board.
+     */
+    private void load(byte[] cells) {
+        if (geometry == null || geometry.getCellCount() != cells.length) {
+            geometry = BoardGeometry.ofCells(cells.length);
+            size = geometry.getSize();
+            fullMask = (1 << size) - 1;
+            unitCells = geometry.getUnitCells();
+            value = new int[cells.length];
+            candidates = new int[cells.length];
+            positions = new int[size];
+        }
+        for (int cell = 0; cell < cells.length; cell++) {
+            value[cell] = 0;
+            candidates[cell] = fullMask;
+        }
+        emptyCount = cells.length;
+        contradiction = false;
+        hardest = null;
+        for (int cell = 0; cell < cells.length && !contradiction; cell++) {
+            if (cells[cell] != 0) {
+                int bit = 1 << (cells[cell] - 1);
+                if ((candidates[cell] & bit) == 0) {
+                    contradiction = true;
+                } else {
+                    assign(cell, bit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the simplest technique that makes progress, everywhere it
+     * applies on the board.
+     *
+     * @return the technique applied, or null if none of them applies.
+     */
+    private Technique step() {
+        if (nakedSingle()) {
+            return Technique.NAKED_SINGLE;
+        }
+        if (hiddenSingle()) {
+            return Technique.HIDDEN_SINGLE;
+        }
+        return eliminationStep();
+    }
+
+    /**
+     * Applies the simplest technique that removes candidates without placing
+     * digits, everywhere it applies on the board.
+     *
+     * @return the technique applied, or null if none of them applies.
+     */
+    private Technique eliminationStep() {
+        if (pointing()) {
+            return Technique.POINTING;
+        }
+        if (boxLine()) {
+            return Technique.BOX_LINE;
+        }
+        if (nakedPair()) {
+            return Technique.NAKED_PAIR;
+        }
+        if (hiddenPair()) {
+            return Technique.HIDDEN_PAIR;
+        }
+        if (nakedTriple()) {
+            return Technique.NAKED_TRIPLE;
+        }
+        if (xWing()) {
+            return Technique.X_WING;
+        }
+        return null;
+    }
+
+    /**
+     * Places a digit in a cell and removes it from the candidates of the
+     * cell's peers.
+     *
+     * @param cell The cell index.
+     * @param bit  The digit as a single bit.
+     */
+    private void assign(int cell, int bit) {
+        value[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+        candidates[cell] = bit;
+        emptyCount--;
+        int[] peers = geometry.getPeers(cell);
+        for (int i = 0; i < peers.length; i++) {
+            int peer = peers[i];
+            if ((candidates[peer] & bit) != 0) {
+                if (value[peer] != 0) {
+                    contradiction = true;
+                } else {
+                    eliminate(peer, bit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes candidates from an empty cell.
+     *
+     * @param cell The cell index.
+     * @param mask The candidates to remove.
+     * @return true if any candidate was removed.
+     */
+    private boolean eliminate(int cell, int mask) {
+        int remaining = candidates[cell] & ~mask;
+        if (remaining == candidates[cell]) {
+            return false;
+        }
+        candidates[cell] = remaining;
+        if (remaining == 0) {
+            contradiction = true;
+        }
+        return true;
+    }
+
+    /**
+     * Places every empty cell that has a single candidate, in one sweep over
+     * the board.
+     *
+     * @return true if any digit was placed.
+     */
+    private boolean nakedSingle() {
+        boolean placed = false;
+        for (int cell = 0; cell < value.length && !contradiction; cell++) {
+            int mask = candidates[cell];
+            if (value[cell] == 0 && mask != 0 && (mask & (mask - 1)) == 0) {
+                assign(cell, mask);
+                placed = true;
+            }
+        }
+        return placed;
+    }
+
+    /**
+     * Finds the first empty cell with a single candidate without placing it.
+     *
+     * @return the cell, with its digit in foundDigit, or -1.
+     */
+    private int findNakedSingle() {
+        for (int cell = 0; cell < value.length; cell++) {
+            int mask = candidates[cell];
+            if (value[cell] == 0 && mask != 0 && (mask & (mask - 1)) == 0) {
+                foundDigit = Integer.numberOfTrailingZeros(mask) + 1;
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first digit that fits in only one cell of a unit without
+     * placing it.
+     *
+     * @return the cell, with its digit in foundDigit, or -1.
+     */
+    private int findHiddenSingle() {
+        for (int u = 0; u < 3 * size; u++) {
+            int base = u * size;
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int k = 0; k < size; k++) {
+                int cell = unitCells[base + k];
+                if (value[cell] != 0) {
+                    placed |= candidates[cell];
+                } else {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                }
+            }
+            int hidden = once & ~twice & ~placed;
+            if (hidden != 0) {
+                int bit = hidden & -hidden;
+                for (int k = 0; k < size; k++) {
+                    int cell = unitCells[base + k];
+                    if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        foundDigit = Integer.numberOfTrailingZeros(bit) + 1;
+                        return cell;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Places the digits that fit in only one cell of a unit, at most one per
+     * unit, in one sweep over the units.
+     *
+     * @return true if any digit was placed.
+     */
+    private boolean hiddenSingle() {
+        boolean placedAny = false;
+        for (int u = 0; u < 3 * size; u++) {
+            int base = u * size;
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int k = 0; k < size; k++) {
+                int cell = unitCells[base + k];
+                if (value[cell] != 0) {
+                    placed |= candidates[cell];
+                } else {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                }
+            }
+            if ((once | placed) != fullMask) {
+                // A digit has nowhere to go
+                contradiction = true;
+                return placedAny;
+            }
+            int hidden = once & ~twice & ~placed;
+            if (hidden != 0) {
+                int bit = hidden & -hidden;
+                for (int k = 0; k < size; k++) {
+                    int cell = unitCells[base + k];
+                    if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        assign(cell, bit);
+                        placedAny = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return placedAny;
+    }
+
+    /**
+     * Finds a digit whose candidates in a subgrid lie in one row or column and
+     * removes it from the rest of that row or column.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean pointing() {
+        boolean changed = false;
+        for (int box = 0; box < size; box++) {
+            int base = (2 * size + box) * size;
+            for (int bit = 1; bit <= fullMask; bit <<= 1) {
+                int row = -1;
+                int col = -1;
+                boolean sameRow = true;
+                boolean sameCol = true;
+                for (int k = 0; k < size; k++) {
+                    int cell = unitCells[base + k];
+                    if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        if (row < 0) {
+                            row = geometry.rowOf(cell);
+                            col = geometry.colOf(cell);
+                        } else {
+                            sameRow &= geometry.rowOf(cell) == row;
+                            sameCol &= geometry.colOf(cell) == col;
+                        }
+                    }
+                }
+                if (row < 0) {
+                    continue;
+                }
+                if (sameRow) {
+                    changed |= eliminateOutsideBox(row, box, bit);
+                }
+                if (sameCol) {
+                    changed |= eliminateOutsideBox(size + col, box, bit);
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes a digit from the cells of a row or column that are not in the
+     * given subgrid.
+     *
+     * @param unit The row unit, or the column unit (size + column).
+     * @param box  The subgrid to leave alone.
+     * @param bit  The digit as a single bit.
+     * @return true if any candidate was removed.
+     */
+    private boolean eliminateOutsideBox(int unit, int box, int bit) {
+        boolean changed = false;
+        int base = unit * size;
+        for (int k = 0; k < size; k++) {
+            int cell = unitCells[base + k];
+            if (value[cell] == 0 && geometry.boxOf(cell) != box) {
+                changed |= eliminate(cell, bit);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds a digit whose candidates in a row or column lie in one subgrid and
+     * removes it from the rest of that subgrid.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean boxLine() {
+        boolean changed = false;
+        for (int unit = 0; unit < 2 * size; unit++) {
+            int base = unit * size;
+            for (int bit = 1; bit <= fullMask; bit <<= 1) {
+                int box = -1;
+                boolean sameBox = true;
+                for (int k = 0; k < size && sameBox; k++) {
+                    int cell = unitCells[base + k];
+                    if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        if (box < 0) {
+                            box = geometry.boxOf(cell);
+                        } else {
+                            sameBox = geometry.boxOf(cell) == box;
+                        }
+                    }
+                }
+                if (box < 0 || !sameBox) {
+                    continue;
+                }
+                int boxBase = (2 * size + box) * size;
+                for (int k = 0; k < size; k++) {
+                    int cell = unitCells[boxBase + k];
+                    boolean inLine = unit < size ? geometry.rowOf(cell) == unit : geometry.colOf(cell) == unit - size;
+                    if (value[cell] == 0 && !inLine) {
+                        changed |= eliminate(cell, bit);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds two cells of a unit with the same two candidates and removes those
+     * digits from the other cells of the unit.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean nakedPair() {
+        boolean changed = false;
+        for (int u = 0; u < 3 * size; u++) {
+            int base = u * size;
+            for (int i = 0; i < size; i++) {
+                int first = unitCells[base + i];
+                int mask = candidates[first];
+                if (value[first] != 0 || Integer.bitCount(mask) != 2) {
+                    continue;
+                }
+                for (int j = i + 1; j < size; j++) {
+                    int second = unitCells[base + j];
+                    if (value[second] == 0 && candidates[second] == mask) {
+                        changed |= eliminateFromUnit(base, mask, first, second, -1);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds three cells of a unit whose candidates are three digits in total
+     * and removes those digits from the other cells of the unit.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean nakedTriple() {
+        boolean changed = false;
+        for (int u = 0; u < 3 * size; u++) {
+            int base = u * size;
+            for (int i = 0; i < size; i++) {
+                int first = unitCells[base + i];
+                if (!isTripleCandidate(first)) {
+                    continue;
+                }
+                for (int j = i + 1; j < size; j++) {
+                    int second = unitCells[base + j];
+                    int pair = candidates[first] | candidates[second];
+                    if (!isTripleCandidate(second) || Integer.bitCount(pair) > 3) {
+                        continue;
+                    }
+                    for (int k = j + 1; k < size; k++) {
+                        int third = unitCells[base + k];
+                        int triple = pair | candidates[third];
+                        if (isTripleCandidate(third) && Integer.bitCount(triple) == 3) {
+                            changed |= eliminateFromUnit(base, triple, first, second, third);
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns whether a cell can be part of a naked triple.
+     *
+     * @param cell The cell index.
+     * @return true if the cell is empty with two or three candidates.
+     */
+    private boolean isTripleCandidate(int cell) {
+        int count = Integer.bitCount(candidates[cell]);
+        return value[cell] == 0 && (count == 2 || count == 3);
+    }
+
+    /**
+     * Removes digits from the empty cells of a unit, except from the given
+     * cells.
+     *
+     * @param base  The index of the unit in the unit cells table.
+     * @param mask  The digits to remove.
+     * @param keep1 A cell to leave alone.
+     * @param keep2 A cell to leave alone.
+     * @param keep3 A cell to leave alone, or -1.
+     * @return true if any candidate was removed.
+     */
+    private boolean eliminateFromUnit(int base, int mask, int keep1, int keep2, int keep3) {
+        boolean changed = false;
+        for (int k = 0; k < size; k++) {
+            int cell = unitCells[base + k];
+            if (value[cell] == 0 && cell != keep1 && cell != keep2 && cell != keep3) {
+                changed |= eliminate(cell, mask);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds two digits that fit in the same two cells of a unit only and
+     * removes every other candidate from those cells.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean hiddenPair() {
+        boolean changed = false;
+        for (int u = 0; u < 3 * size; u++) {
+            int base = u * size;
+            for (int d = 0; d < size; d++) {
+                positions[d] = 0;
+            }
+            for (int k = 0; k < size; k++) {
+                int cell = unitCells[base + k];
+                if (value[cell] == 0) {
+                    int mask = candidates[cell];
+                    while (mask != 0) {
+                        int bit = mask & -mask;
+                        mask ^= bit;
+                        positions[Integer.numberOfTrailingZeros(bit)] |= 1 << k;
+                    }
+                }
+            }
+            for (int d1 = 0; d1 < size; d1++) {
+                if (Integer.bitCount(positions[d1]) != 2) {
+                    continue;
+                }
+                for (int d2 = d1 + 1; d2 < size; d2++) {
+                    if (positions[d2] == positions[d1]) {
+                        int pair = (1 << d1) | (1 << d2);
+                        int first = unitCells[base + Integer.numberOfTrailingZeros(positions[d1])];
+                        int second = unitCells[base + 31 - Integer.numberOfLeadingZeros(positions[d1])];
+                        changed |= eliminate(first, ~pair & fullMask);
+                        changed |= eliminate(second, ~pair & fullMask);
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds a digit that fits in the same two columns of two rows, or the
+     * same two rows of two columns, and removes it from the rest of those
+     * columns or rows.
+     *
+     * @return true if any candidate was removed.
+     */
+    private boolean xWing() {
+        boolean changed = false;
+        // Rows as the base lines first, then columns
+        for (int lines = 0; lines < 2 * size; lines += size) {
+            int crossLines = size - lines;
+            for (int bit = 1; bit <= fullMask; bit <<= 1) {
+                for (int line = 0; line < size; line++) {
+                    positions[line] = linePositions(lines + line, bit);
+                }
+                for (int first = 0; first < size; first++) {
+                    if (Integer.bitCount(positions[first]) != 2) {
+                        continue;
+                    }
+                    for (int second = first + 1; second < size; second++) {
+                        if (positions[second] != positions[first]) {
+                            continue;
+                        }
+                        int cross = positions[first];
+                        while (cross != 0) {
+                            int k = Integer.numberOfTrailingZeros(cross);
+                            cross &= cross - 1;
+                            int base = (crossLines + k) * size;
+                            for (int j = 0; j < size; j++) {
+                                int cell = unitCells[base + j];
+                                if (value[cell] == 0 && j != first && j != second) {
+                                    changed |= eliminate(cell, bit);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the positions in a row or column where a digit is a candidate.
+     *
+     * @param unit The row or column unit.
+     * @param bit  The digit as a single bit.
+     * @return one bit per position of the unit.
+     */
+    private int linePositions(int unit, int bit) {
+        int result = 0;
+        int base = unit * size;
+        for (int k = 0; k < size; k++) {
+            int cell = unitCells[base + k];
+            if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                result |= 1 << k;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,240 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * This class counts the work of the Sudoku engine across all models and
+ * threads: puzzles generated and solved, search nodes and backtracks, calls
+ * to isValidMove, and the latencies of solve and generate. The counters are
+ * LongAdders, so threads solving at the same time add to their own cells
+ * instead of contending for one value. The searches count nodes in plain
+ * fields of their own and add them here once per solve or generate, so the
+ * hot loops never touch shared state.
+ *
+ * register() publishes the metrics over JMX as sudoku:type=EngineMetrics.
+ * Counting works whether or not the metrics are registered.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class EngineMetrics implements EngineMetricsMXBean {
+    /**
+     * The name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "sudoku:type=EngineMetrics";
+
+    private static final EngineMetrics INSTANCE = new EngineMetrics();
+
+    private final LongAdder puzzlesGenerated = new LongAdder();
+    private final LongAdder puzzlesSolved = new LongAdder();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder validMoveCalls = new LongAdder();
+    private final LatencyHistogram solveLatency = new LatencyHistogram();
+    private final LatencyHistogram generateLatency = new LatencyHistogram();
+
+    private EngineMetrics() {
+    }
+
+    /**
+     * Returns the metrics shared by the whole engine.
+     *
+     * @return the engine metrics.
+     */
+    public static EngineMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Starting the MBean
+     * server takes a while, so this is best called off the FX thread.
+     * Registering again does nothing.
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException e) {
+            // Already registered
+        } catch (JMException e) {
+            System.err.println("Could not register the engine metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a generated puzzle.
+     *
+     * @param nanos How long generating took in nanoseconds.
+     */
+    public void recordGenerate(long nanos) {
+        puzzlesGenerated.increment();
+        generateLatency.record(nanos);
+    }
+
+    /**
+     * Records a solve.
+     *
+     * @param nanos  How long solving took in nanoseconds.
+     * @param solved Whether the puzzle was solved.
+     */
+    public void recordSolve(long nanos, boolean solved) {
+        if (solved) {
+            puzzlesSolved.increment();
+        }
+        solveLatency.record(nanos);
+    }
+
+    /**
+     * Adds the nodes and backtracks of one or more searches.
+     *
+     * @param nodes      The search nodes visited.
+     * @param backtracks The tried digits taken back.
+     */
+    public void addSearch(long nodes, long backtracks) {
+        if (nodes != 0) {
+            nodesVisited.add(nodes);
+        }
+        if (backtracks != 0) {
+            this.backtracks.add(backtracks);
+        }
+    }
+
+    /**
+     * Adds calls to isValidMove.
+     *
+     * @param calls The number of calls.
+     */
+    public void addValidMoveCalls(long calls) {
+        if (calls != 0) {
+            validMoveCalls.add(calls);
+        }
+    }
+
+    /**
+     * Returns the number of puzzles generated.
+     *
+     * @return the generated count.
+     */
+    @Override
+    public long getPuzzlesGenerated() {
+        return puzzlesGenerated.sum();
+    }
+
+    /**
+     * Returns the number of successful solves.
+     *
+     * @return the solved count.
+     */
+    @Override
+    public long getPuzzlesSolved() {
+        return puzzlesSolved.sum();
+    }
+
+    /**
+     * Returns the number of search nodes visited.
+     *
+     * @return the node count.
+     */
+    @Override
+    public long getNodesVisited() {
+        return nodesVisited.sum();
+    }
+
+    /**
+     * Returns the number of tried digits taken back.
+     *
+     * @return the backtrack count.
+     */
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    /**
+     * Returns the number of calls to isValidMove.
+     *
+     * @return the call count.
+     */
+    @Override
+    public long getValidMoveCalls() {
+        return validMoveCalls.sum();
+    }
+
+    /**
+     * Returns the median solve latency.
+     *
+     * @return the p50 in microseconds.
+     */
+    @Override
+    public long getSolveLatencyP50Micros() {
+        return solveLatency.getPercentile(0.5) / 1000;
+    }
+
+    /**
+     * Returns the 99th percentile solve latency.
+     *
+     * @return the p99 in microseconds.
+     */
+    @Override
+    public long getSolveLatencyP99Micros() {
+        return solveLatency.getPercentile(0.99) / 1000;
+    }
+
+    /**
+     * Returns the longest solve latency, to the histogram's precision.
+     *
+     * @return the maximum in microseconds.
+     */
+    @Override
+    public long getSolveLatencyMaxMicros() {
+        return solveLatency.getPercentile(1.0) / 1000;
+    }
+
+    /**
+     * Returns the median generate latency.
+     *
+     * @return the p50 in microseconds.
+     */
+    @Override
+    public long getGenerateLatencyP50Micros() {
+        return generateLatency.getPercentile(0.5) / 1000;
+    }
+
+    /**
+     * Returns the 99th percentile generate latency.
+     *
+     * @return the p99 in microseconds.
+     */
+    @Override
+    public long getGenerateLatencyP99Micros() {
+        return generateLatency.getPercentile(0.99) / 1000;
+    }
+
+    /**
+     * Returns the longest generate latency, to the histogram's precision.
+     *
+     * @return the maximum in microseconds.
+     */
+    @Override
+    public long getGenerateLatencyMaxMicros() {
+        return generateLatency.getPercentile(1.0) / 1000;
+    }
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    @Override
+    public void reset() {
+        puzzlesGenerated.reset();
+        puzzlesSolved.reset();
+        nodesVisited.reset();
+        backtracks.reset();
+        validMoveCalls.reset();
+        solveLatency.reset();
+        generateLatency.reset();
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * This interface is the management view of EngineMetrics, registered with
+ * the platform MBean server as sudoku:type=EngineMetrics so that JMX tools
+ * such as JConsole can read the engine counters and latencies.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public interface EngineMetricsMXBean {
+    /**
+     * Returns the number of puzzles generated.
+     *
+     * @return the generated count.
+     */
+    long getPuzzlesGenerated();
+
+    /**
+     * Returns the number of successful solves.
+     *
+     * @return the solved count.
+     */
+    long getPuzzlesSolved();
+
+    /**
+     * Returns the number of search nodes visited by all solves and
+     * generations, where a node is one digit tried in a cell.
+     *
+     * @return the node count.
+     */
+    long getNodesVisited();
+
+    /**
+     * Returns the number of tried digits the searches had to take back.
+     *
+     * @return the backtrack count.
+     */
+    long getBacktracks();
+
+    /**
+     * Returns the number of calls to Sudoku.isValidMove.
+     *
+     * @return the call count.
+     */
+    long getValidMoveCalls();
+
+    /**
+     * Returns the median solve latency.
+     *
+     * @return the p50 in microseconds.
+     */
+    long getSolveLatencyP50Micros();
+
+    /**
+     * Returns the 99th percentile solve latency.
+     *
+     * @return the p99 in microseconds.
+     */
+    long getSolveLatencyP99Micros();
+
+    /**
+     * Returns the longest solve latency.
+     *
+     * @return the maximum in microseconds.
+     */
+    long getSolveLatencyMaxMicros();
+
+    /**
+     * Returns the median generate latency.
+     *
+     * @return the p50 in microseconds.
+     */
+    long getGenerateLatencyP50Micros();
+
+    /**
+     * Returns the 99th percentile generate latency.
+     *
+     * @return the p99 in microseconds.
+     */
+    long getGenerateLatencyP99Micros();
+
+    /**
+     * Returns the longest generate latency.
+     *
+     * @return the maximum in microseconds.
+     */
+    long getGenerateLatencyMaxMicros();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
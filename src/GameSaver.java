@@ -0,0 +1,144 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class saves the current game in the background so that it can be
+ * continued after the application is closed. Saves and deletes run one at a
+ * time on their own thread, in the order they were asked for. If the player
+ * makes several moves while a save is being written, only the newest snapshot
+ * is written next.
+ *
+ * The file is read from sudoku.save.file and defaults to saved-game.sdks in
+ * the .sudoku folder of the user's home directory.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class GameSaver {
+    /**
+     * The file games are saved to by default.
+     */
+    public static final Path DEFAULT_FILE = Paths.get(System.getProperty("sudoku.save.file",
+            Paths.get(System.getProperty("user.home"), ".sudoku", "saved-game.sdks").toString()));
+
+    // Longest time flush() waits for the pending writes
+    private static final long FLUSH_TIMEOUT_SECONDS = 5;
+
+    private final Path file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sudoku-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // The newest snapshot that is not written yet
+    private final AtomicReference<GameSnapshot> pending = new AtomicReference<>();
+
+    /**
+     * Creates a saver for the default file.
+     */
+    public GameSaver() {
+        this(DEFAULT_FILE);
+    }
+
+    /**
+     * Creates a saver.
+     *
+     * @param file The file games are saved to.
+     */
+    public GameSaver(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the file games are saved to.
+     *
+     * @return the save file.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Returns whether there is a saved game to continue.
+     *
+     * @return true if the save file exists.
+     */
+    public boolean hasSavedGame() {
+        return Files.isRegularFile(file);
+    }
+
+    /**
+     * Reads the saved game.
+     *
+     * @return the saved game.
+     * @throws IOException if there is none or it cannot be read.
+     */
+    public GameSnapshot load() throws IOException {
+        return GameSnapshot.load(file);
+    }
+
+    /**
+     * Saves a snapshot in the background. It replaces any snapshot that is
+     * still waiting to be written.
+     *
+     * @param snapshot The snapshot to save.
+     */
+    public void save(GameSnapshot snapshot) {
+        if (pending.getAndSet(snapshot) == null) {
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Deletes the saved game in the background, after the saves asked for
+     * before, for example when the game is won.
+     */
+    public void delete() {
+        pending.set(null);
+        executor.execute(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("Could not delete the saved game: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits until every save and delete asked for so far is done, for example
+     * before the application exits.
+     */
+    public void flush() {
+        try {
+            executor.submit(() -> {
+            }).get(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            System.err.println("Could not finish saving the game: " + e);
+        }
+    }
+
+    /**
+     * Writes the newest snapshot, if there is one. Runs on the save thread.
+     */
+    private void writePending() {
+        GameSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.save(file);
+        } catch (IOException e) {
+            System.err.println("Could not save the game: " + e.getMessage());
+        }
+    }
+}
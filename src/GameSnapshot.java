@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+/**
+ * This class is a saved game: the puzzle, its solution, the numbers the
+ * player has entered and the time played so far. It is stored in a small
+ * versioned binary format so that it can be written after every move.
+ *
+ * A snapshot starts with a 12 byte header: the magic bytes "SDKS", a version
+ * byte, the board size, two reserved bytes, and the elapsed seconds as a
+ * big-endian int. The puzzle, the solution and the board as the player sees
+ * it follow, each packed like a BinaryPuzzleFormat record, and the snapshot
+ * ends with a CRC32 of everything before it. A 9x9 game takes 139 bytes.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class GameSnapshot {
+    /**
+     * Current snapshot version.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = ('S' << 24) | ('D' << 16) | ('K' << 8) | 'S';
+    private static final int HEADER_SIZE = 12;
+    private static final int CHECKSUM_SIZE = 4;
+
+    private final int boardSize;
+    private final byte[] puzzle;
+    private final byte[] solution;
+    private final byte[] entries;
+    private final int secondsElapsed;
+
+    /**
+     * Creates a snapshot. The arrays are kept, so the caller must not change
+     * them.
+     *
+     * @param boardSize      The number of rows and columns of the board.
+     * @param puzzle         The flat puzzle, 0 for empty cells.
+     * @param solution       The flat solution.
+     * @param entries        The flat board as the player sees it, including
+     *                       the starting numbers, 0 for empty cells.
+     * @param secondsElapsed The time played so far in seconds.
+     */
+    public GameSnapshot(int boardSize, byte[] puzzle, byte[] solution, byte[] entries, int secondsElapsed) {
+        int cells = boardSize * boardSize;
+        if (puzzle.length != cells || solution.length != cells || entries.length != cells) {
+            throw new IllegalArgumentException("Boards do not match the board size " + boardSize);
+        }
+        this.boardSize = boardSize;
+        this.puzzle = puzzle;
+        this.solution = solution;
+        this.entries = entries;
+        this.secondsElapsed = secondsElapsed;
+    }
+
+    /**
+     * Returns the number of rows and columns of the board.
+     *
+     * @return the board size.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns the flat puzzle, which must not be changed.
+     *
+     * @return the puzzle.
+     */
+    public byte[] getPuzzle() {
+        return puzzle;
+    }
+
+    /**
+     * Returns the flat solution, which must not be changed.
+     *
+     * @return the solution.
+     */
+    public byte[] getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the flat board as the player saw it, which must not be changed.
+     *
+     * @return the player's board.
+     */
+    public byte[] getEntries() {
+        return entries;
+    }
+
+    /**
+     * Returns the time played so far.
+     *
+     * @return the elapsed seconds.
+     */
+    public int getSecondsElapsed() {
+        return secondsElapsed;
+    }
+
+    /**
+     * Encodes the snapshot in the binary format.
+     *
+     * @return the encoded bytes.
+     */
+    public byte[] toBytes() {
+        int packed = BinaryPuzzleFormat.packedSize(boardSize);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 3 * packed + CHECKSUM_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.put(4, (byte) VERSION);
+        buffer.put(5, (byte) boardSize);
+        buffer.putShort(6, (short) 0);
+        buffer.putInt(8, secondsElapsed);
+        BinaryPuzzleFormat.pack(puzzle, boardSize, buffer, HEADER_SIZE);
+        BinaryPuzzleFormat.pack(solution, boardSize, buffer, HEADER_SIZE + packed);
+        BinaryPuzzleFormat.pack(entries, boardSize, buffer, HEADER_SIZE + 2 * packed);
+        int end = HEADER_SIZE + 3 * packed;
+        buffer.putInt(end, (int) checksum(buffer.array(), end));
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a snapshot from the binary format.
+     *
+     * @param bytes The encoded bytes.
+     * @return the snapshot.
+     * @throws IOException if the bytes are not a valid snapshot of a supported
+     *                     version, or their checksum does not match.
+     */
+    public static GameSnapshot fromBytes(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length < HEADER_SIZE + CHECKSUM_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a saved game");
+        }
+        if (buffer.get(4) != VERSION) {
+            throw new IOException("Unsupported saved game version: " + buffer.get(4));
+        }
+        int boardSize = buffer.get(5) & 0xFF;
+        int subgridSize = (int) Math.sqrt(boardSize);
+        if (subgridSize * subgridSize != boardSize || subgridSize < 2 || subgridSize > 5) {
+            throw new IOException("Unsupported saved board size: " + boardSize);
+        }
+        int packed = BinaryPuzzleFormat.packedSize(boardSize);
+        int end = HEADER_SIZE + 3 * packed;
+        if (bytes.length != end + CHECKSUM_SIZE) {
+            throw new IOException("Saved game has the wrong size");
+        }
+        if (buffer.getInt(end) != (int) checksum(bytes, end)) {
+            throw new IOException("Saved game is corrupt");
+        }
+
+        int cells = boardSize * boardSize;
+        byte[] puzzle = new byte[cells];
+        byte[] solution = new byte[cells];
+        byte[] entries = new byte[cells];
+        BinaryPuzzleFormat.unpack(buffer, HEADER_SIZE, puzzle, boardSize);
+        BinaryPuzzleFormat.unpack(buffer, HEADER_SIZE + packed, solution, boardSize);
+        BinaryPuzzleFormat.unpack(buffer, HEADER_SIZE + 2 * packed, entries, boardSize);
+        return new GameSnapshot(boardSize, puzzle, solution, entries, buffer.getInt(8));
+    }
+
+    /**
+     * Writes the snapshot to a file. It is written to a temporary file next to
+     * it first and then renamed, so the file always holds a complete snapshot
+     * even if the application stops while writing.
+     *
+     * @param file The file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, toBytes());
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param file The file to read.
+     * @return the snapshot.
+     * @throws IOException if the file cannot be read or is not a valid
+     *                     snapshot.
+     */
+    public static GameSnapshot load(Path file) throws IOException {
+        return fromBytes(Files.readAllBytes(file));
+    }
+
+    /**
+     * Computes the CRC32 of the first bytes of an array.
+     *
+     * @param bytes  The array.
+     * @param length The number of bytes to include.
+     * @return the checksum.
+     */
+    private static long checksum(byte[] bytes, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,49 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class takes a new puzzle from a puzzle pool on a background thread.
+ * If the pool is empty the puzzle is generated on the background thread, so
+ * the JavaFX Application Thread never runs the generator. Cancelling the task
+ * sets the generator's stop flag, so a slow generation ends promptly instead
+ * of keeping the engine thread busy.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class GenerateTask extends TimedTask<Puzzle> {
+    private final PuzzlePool puzzlePool;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+
+    /**
+     * Creates a task that takes a puzzle from the given pool.
+     * 
+     * @param puzzlePool The pool of pre-generated puzzles.
+     */
+    public GenerateTask(PuzzlePool puzzlePool) {
+        this.puzzlePool = puzzlePool;
+    }
+
+    /**
+     * Takes the next puzzle from the pool.
+     * 
+     * @return the new puzzle with its solution.
+     * @throws java.util.concurrent.CancellationException if the task was
+     *         cancelled while generating.
+     */
+    @Override
+    protected Puzzle compute() {
+        return puzzlePool.take(stopFlag);
+    }
+
+    /**
+     * Cancels the task and stops the running generation.
+     * 
+     * @param mayInterruptIfRunning Whether the worker thread may be interrupted.
+     * @return true if the task was cancelled.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        stopFlag.set(true);
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
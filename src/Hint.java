@@ -0,0 +1,109 @@
+/**
+ * This class holds a hint for the player: a cell and the digit that belongs
+ * there, with the technique that finds it. A hint can also point out a cell
+ * whose entry is wrong, or give a digit straight from the solution when the
+ * techniques of DifficultyGrader cannot find the next step.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class Hint {
+    private final int cell;
+    private final int value;
+    private final Technique technique;
+    private final boolean mistake;
+
+    /**
+     * Creates a hint for a cell that can be filled in.
+     *
+     * @param cell      The cell index in row-major order.
+     * @param value     The digit that belongs in the cell.
+     * @param technique The hardest technique needed to find it, or null if
+     *                  the digit comes from the solution.
+     */
+    public Hint(int cell, int value, Technique technique) {
+        this(cell, value, technique, false);
+    }
+
+    /**
+     * Creates a hint.
+     *
+     * @param cell      The cell index in row-major order.
+     * @param value     The digit that belongs in the cell.
+     * @param technique The technique that finds it, or null.
+     * @param mistake   Whether the cell holds a wrong entry.
+     */
+    private Hint(int cell, int value, Technique technique, boolean mistake) {
+        this.cell = cell;
+        this.value = value;
+        this.technique = technique;
+        this.mistake = mistake;
+    }
+
+    /**
+     * Creates a hint that points out a wrong entry.
+     *
+     * @param cell  The cell index in row-major order.
+     * @param value The digit that belongs in the cell.
+     * @return the hint.
+     */
+    public static Hint mistake(int cell, int value) {
+        return new Hint(cell, value, null, true);
+    }
+
+    /**
+     * Returns the cell the hint is about.
+     *
+     * @return the cell index in row-major order.
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * Returns the digit that belongs in the cell.
+     *
+     * @return the digit.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the technique that finds the digit.
+     *
+     * @return the technique, or null for a mistake or a digit from the
+     *         solution.
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * Returns whether the hint points out a wrong entry.
+     *
+     * @return true if the cell holds a wrong entry.
+     */
+    public boolean isMistake() {
+        return mistake;
+    }
+
+    /**
+     * Describes the hint for the feedback label. The digit itself is only
+     * named for hints from the solution; otherwise the player is told where
+     * to look and how.
+     *
+     * @param boardSize The number of rows and columns of the board.
+     * @return the description, for example "Naked single at row 3, column 4."
+     */
+    public String describe(int boardSize) {
+        String position = "row " + (cell / boardSize + 1) + ", column " + (cell % boardSize + 1);
+        if (mistake) {
+            return "The entry at " + position + " is wrong.";
+        }
+        if (technique == null) {
+            return "Try " + value + " at " + position + ".";
+        }
+        return technique + " at " + position + ".";
+    }
+}
@@ -0,0 +1,76 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.concurrent.Task;
+
+/**
+ * This class finds a hint for the player's current entries on a background
+ * thread. Entries that differ from the known solution are pointed out first.
+ * Otherwise the grader looks for the next logical step, and if the techniques
+ * get stuck the hint gives a digit from the solution. Cancelling the task
+ * sets the grader's stop flag, so a hint for a board the player has changed
+ * since is abandoned promptly.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class HintTask extends Task<Hint> {
+    private final byte[] entries;
+    private final byte[] solution;
+    private final DifficultyGrader grader;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+
+    /**
+     * Creates a task that finds a hint.
+     *
+     * @param entries  The flat board of the player's entries, owned by the
+     *                 task.
+     * @param solution The flat solution board, owned by the task, with 0 in
+     *                 every cell if the solution is not known.
+     * @param grader   The grader to use, only used by one task at a time.
+     */
+    public HintTask(byte[] entries, byte[] solution, DifficultyGrader grader) {
+        this.entries = entries;
+        this.solution = solution;
+        this.grader = grader;
+    }
+
+    /**
+     * Finds the hint.
+     *
+     * @return the hint, or null if there is none or the task was cancelled.
+     */
+    @Override
+    protected Hint call() {
+        for (int cell = 0; cell < entries.length; cell++) {
+            if (entries[cell] != 0 && solution[cell] != 0 && entries[cell] != solution[cell]) {
+                return Hint.mistake(cell, solution[cell]);
+            }
+        }
+
+        grader.setStopFlag(stopFlag);
+        Hint hint = grader.findHint(entries);
+        grader.setStopFlag(null);
+        if (hint != null || stopFlag.get()) {
+            return hint;
+        }
+
+        for (int cell = 0; cell < entries.length; cell++) {
+            if (entries[cell] == 0 && solution[cell] != 0) {
+                return new Hint(cell, solution[cell], null);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cancels the task and stops the running search.
+     * 
+     * @param mayInterruptIfRunning Whether the worker thread may be interrupted.
+     * @return true if the task was cancelled.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        stopFlag.set(true);
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
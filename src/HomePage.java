@@ -2,6 +2,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
@@ -9,8 +10,8 @@ import javafx.stage.Stage;
 
 /**
  * This class represents the Home Page of the Sudoku application. It provides
- * the title, subtitle, and buttons for starting a new game or quitting the
- * application.
+ * the title, subtitle, a board size choice, and buttons for starting a new
+ * game, continuing the saved game, or quitting the application.
  * The layout is designed using a VBox with a dark blue background and styled
  * buttons.
  * 
@@ -26,7 +27,9 @@ public class HomePage {
     private Text title;
     private Text subtitle;
     private Button startNewGameButton;
+    private Button continueButton;
     private Button quitButton;
+    private ChoiceBox<String> sizeChoice;
 
     /**
      * Constructs a HomePage and sets up the layout and components.
@@ -54,6 +57,17 @@ public class HomePage {
         startNewGameButton = new Button("Start New Game");
         startNewGameButton.setStyle(buttonStyle);
 
+        // Disabled until the application finds a saved game
+        continueButton = new Button("Continue");
+        continueButton.setStyle(buttonStyle);
+        continueButton.setDisable(true);
+
+        // Board size selection
+        sizeChoice = new ChoiceBox<>();
+        sizeChoice.getItems().addAll("9 x 9", "16 x 16", "25 x 25");
+        sizeChoice.setValue("9 x 9");
+        sizeChoice.setStyle("-fx-font-size: 16px;");
+
         // Red color for quit button
         quitButton = new Button("Quit");
         quitButton.setStyle(buttonStyle + "-fx-background-color: #E74C3C;");
@@ -66,7 +80,7 @@ public class HomePage {
         spacer2.setMinHeight(20);
 
         // adding all component to the VBox
-        root.getChildren().addAll(title, subtitle, spacer1, startNewGameButton, spacer2, quitButton);
+        root.getChildren().addAll(title, subtitle, spacer1, sizeChoice, startNewGameButton, continueButton, spacer2, quitButton);
 
         scene = new Scene(root, 600, 400);
     }
@@ -89,6 +103,36 @@ public class HomePage {
         return startNewGameButton;
     }
 
+    /**
+     * Returns the Button for continuing the saved game.
+     * 
+     * @return the button labeled "Continue".
+     */
+    public Button getContinueButton() {
+        return continueButton;
+    }
+
+    /**
+     * Returns the ChoiceBox for the board size.
+     * 
+     * @return the board size choice.
+     */
+    public ChoiceBox<String> getSizeChoice() {
+        return sizeChoice;
+    }
+
+    /**
+     * Returns the subgrid size of the board size chosen by the user, for
+     * example 3 for a 9 x 9 board.
+     * 
+     * @return the selected subgrid size.
+     */
+    public int getSelectedSubgridSize() {
+        String value = sizeChoice.getValue();
+        int boardSize = Integer.parseInt(value.substring(0, value.indexOf(' ')));
+        return (int) Math.sqrt(boardSize);
+    }
+
     /**
      * Returns the Button for quitting the application.
      * 
@@ -0,0 +1,104 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class records latencies in nanoseconds into a fixed set of buckets so
+ * that percentiles can be reported without keeping every sample. Each power
+ * of two is split into 16 linear sub-buckets, which keeps the error of a
+ * reported percentile under about 6%. Memory use does not grow with the number
+ * of samples, and record can be called from many threads at once.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Records one latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(indexOf(Math.max(0, nanos)));
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the sample count.
+     */
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the latency below which the given fraction of samples fall.
+     *
+     * @param fraction The percentile as a fraction, for example 0.99.
+     * @return the upper bound of the bucket holding that percentile in
+     *         nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double fraction) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(fraction * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return upperBoundOf(i);
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Clears all recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the bucket for a latency. Values below SUB_BUCKETS get one
+     * bucket each, larger values get SUB_BUCKETS buckets per power of two.
+     *
+     * @param nanos The latency in nanoseconds.
+     * @return the bucket index.
+     */
+    private static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int sub = (int) (nanos >>> exponent) & (SUB_BUCKETS - 1);
+        return (exponent + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the largest latency that falls in a bucket.
+     *
+     * @param index The bucket index.
+     * @return the upper bound in nanoseconds.
+     */
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        return ((SUB_BUCKETS + sub + 1) << exponent) - 1;
+    }
+}
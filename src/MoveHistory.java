@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * This class keeps the history of player moves for undo and redo. Every move
+ * is packed into one int: the cell index in the low 16 bits, then 7 bits each
+ * for the old and the new value, and one bit that links the move to the one
+ * before it, so that a step changing many cells, such as clearing the board,
+ * is undone as a whole. The log grows as needed and has no fixed limit, and a
+ * long game only takes four bytes per move.
+ *
+ * The history has a current position. Undo moves it back and redo forward,
+ * and jumping to any position walks only the moves in between. Recording a
+ * new move drops the moves after the current position.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class MoveHistory {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int CELL_MASK = 0xFFFF;
+    private static final int VALUE_BITS = 7;
+    private static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    private static final int OLD_SHIFT = 16;
+    private static final int NEW_SHIFT = OLD_SHIFT + VALUE_BITS;
+    private static final int LINKED = 1 << (NEW_SHIFT + VALUE_BITS);
+
+    private int[] moves = new int[INITIAL_CAPACITY];
+    // Moves recorded, including undone ones that can be redone
+    private int size;
+    // Moves currently applied
+    private int position;
+
+    /**
+     * Applies moves while undoing, redoing or jumping.
+     */
+    public interface MoveApplier {
+        /**
+         * Sets a cell to a value.
+         *
+         * @param cell  The cell index.
+         * @param value The value to set, 0 for empty.
+         */
+        void apply(int cell, int value);
+    }
+
+    /**
+     * Records a move at the current position, dropping any undone moves.
+     *
+     * @param cell     The cell index.
+     * @param oldValue The value before the move, 0 for empty.
+     * @param newValue The value after the move, 0 for empty.
+     * @param linked   Whether the move belongs to the same step as the
+     *                 previous one.
+     */
+    public void record(int cell, int oldValue, int newValue, boolean linked) {
+        if (position == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        int move = pack(cell, oldValue, newValue);
+        if (linked && position > 0) {
+            move |= LINKED;
+        }
+        moves[position++] = move;
+        size = position;
+    }
+
+    /**
+     * Undoes the last step, which may be several linked moves.
+     *
+     * @param applier Sets the cells back to their old values.
+     * @return false if there was nothing to undo.
+     */
+    public boolean undo(MoveApplier applier) {
+        if (position == 0) {
+            return false;
+        }
+        int target = position - 1;
+        while (target > 0 && (moves[target] & LINKED) != 0) {
+            target--;
+        }
+        jumpTo(target, applier);
+        return true;
+    }
+
+    /**
+     * Redoes the next step, which may be several linked moves.
+     *
+     * @param applier Sets the cells to their new values.
+     * @return false if there was nothing to redo.
+     */
+    public boolean redo(MoveApplier applier) {
+        if (position == size) {
+            return false;
+        }
+        int target = position + 1;
+        while (target < size && (moves[target] & LINKED) != 0) {
+            target++;
+        }
+        jumpTo(target, applier);
+        return true;
+    }
+
+    /**
+     * Moves to any position of the history by undoing or redoing the moves in
+     * between.
+     *
+     * @param target  The number of moves that should be applied, from 0 to
+     *                size().
+     * @param applier Sets the cells of the moves walked.
+     */
+    public void jumpTo(int target, MoveApplier applier) {
+        if (target < 0 || target > size) {
+            throw new IndexOutOfBoundsException("Position " + target + " of " + size);
+        }
+        while (position > target) {
+            int move = moves[--position];
+            applier.apply(move & CELL_MASK, (move >>> OLD_SHIFT) & VALUE_MASK);
+        }
+        while (position < target) {
+            int move = moves[position++];
+            applier.apply(move & CELL_MASK, (move >>> NEW_SHIFT) & VALUE_MASK);
+        }
+    }
+
+    /**
+     * Returns whether there is a step to undo.
+     *
+     * @return true if a move is applied.
+     */
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    /**
+     * Returns whether there is a step to redo.
+     *
+     * @return true if a move was undone and not replaced.
+     */
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Returns the number of moves currently applied.
+     *
+     * @return the current position.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of moves recorded, including undone ones.
+     *
+     * @return the history size.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forgets every move, for example when a new puzzle is loaded.
+     */
+    public void clear() {
+        size = 0;
+        position = 0;
+        if (moves.length > INITIAL_CAPACITY) {
+            moves = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * Packs a move into an int.
+     *
+     * @param cell     The cell index.
+     * @param oldValue The value before the move.
+     * @param newValue The value after the move.
+     * @return the packed move, not linked.
+     */
+    private static int pack(int cell, int oldValue, int newValue) {
+        if (cell < 0 || cell > CELL_MASK || oldValue < 0 || oldValue > VALUE_MASK || newValue < 0
+                || newValue > VALUE_MASK) {
+            throw new IllegalArgumentException("Move out of range");
+        }
+        return cell | oldValue << OLD_SHIFT | newValue << NEW_SHIFT;
+    }
+}
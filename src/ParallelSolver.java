@@ -0,0 +1,200 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class solves a Sudoku board on several cores using a ForkJoinPool.
+ * The top levels of the search tree are split into tasks: each task picks the
+ * empty cell with the fewest candidates on its own copy of the board and forks
+ * one subtask per candidate digit. Once a task has few enough siblings it
+ * solves its copy with a PropagationSolver. The first task to find a solution
+ * sets a shared stop flag, which makes every other task give up.
+ *
+ * Easy puzzles are tried on the calling thread first with a small branch
+ * budget, so they cost the same as a PropagationSolver and never touch the
+ * pool. Only searches that run out of that budget are split.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class ParallelSolver implements SudokuSolver {
+    // Branches tried on the calling thread before the search is split
+    private static final long SEQUENTIAL_BRANCH_LIMIT = 64;
+    // Number of leaf tasks per worker thread to aim for when splitting
+    private static final int TASKS_PER_THREAD = 8;
+    // How often an outside stop flag is checked while the tasks run
+    private static final long STOP_POLL_MILLIS = 50;
+
+    // One propagation solver per worker thread, reused across tasks
+    private static final ThreadLocal<PropagationSolver> LEAF_SOLVER = ThreadLocal.withInitial(PropagationSolver::new);
+
+    private final ForkJoinPool pool;
+    private final PropagationSolver sequentialSolver = new PropagationSolver();
+    private AtomicBoolean stopFlag;
+
+    /**
+     * Creates a parallel solver that runs on the common ForkJoinPool.
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a parallel solver that runs on the given pool.
+     *
+     * @param pool The pool used to run the search tasks.
+     */
+    public ParallelSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets a flag that stops the search as soon as it becomes true.
+     *
+     * @param flag The shared stop flag, or null to never stop.
+     */
+    @Override
+    public void setStopFlag(AtomicBoolean flag) {
+        stopFlag = flag;
+        sequentialSolver.setStopFlag(flag);
+    }
+
+    /**
+     * Solves the given board in place, splitting the search across the pool
+     * if the puzzle is not solved quickly on the calling thread.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    @Override
+    public boolean solve(byte[] cells) {
+        int parallelism = pool.getParallelism();
+        sequentialSolver.setBranchLimit(parallelism > 1 ? SEQUENTIAL_BRANCH_LIMIT : Long.MAX_VALUE);
+        if (sequentialSolver.solve(cells)) {
+            return true;
+        }
+        if (!sequentialSolver.wasStopped() || (stopFlag != null && stopFlag.get())) {
+            return false;
+        }
+
+        AtomicBoolean found = new AtomicBoolean();
+        AtomicReference<byte[]> result = new AtomicReference<>();
+        BoardGeometry geometry = BoardGeometry.ofCells(cells.length);
+        SearchTask root = new SearchTask(cells.clone(), geometry, parallelism * TASKS_PER_THREAD, found, result);
+        if (stopFlag == null) {
+            pool.invoke(root);
+        } else {
+            // The tasks only watch their own flag, so pass an outside stop on
+            pool.execute(root);
+            while (!root.isDone()) {
+                if (stopFlag.get()) {
+                    found.set(true);
+                }
+                root.quietlyJoinUninterruptibly(STOP_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            if (stopFlag.get()) {
+                return false;
+            }
+        }
+
+        byte[] solved = result.get();
+        if (solved == null) {
+            return false;
+        }
+        System.arraycopy(solved, 0, cells, 0, cells.length);
+        return true;
+    }
+
+    /**
+     * A search task working on its own copy of the board. ForkJoinTask is
+     * Serializable, but search tasks are never serialized.
+     */
+    private static class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] cells;
+        private final transient BoardGeometry geometry;
+        // Number of leaf tasks this subtree may still be split into
+        private final int budget;
+        private final AtomicBoolean found;
+        private final AtomicReference<byte[]> result;
+
+        SearchTask(byte[] cells, BoardGeometry geometry, int budget, AtomicBoolean found,
+                AtomicReference<byte[]> result) {
+            this.cells = cells;
+            this.geometry = geometry;
+            this.budget = budget;
+            this.found = found;
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get()) {
+                return;
+            }
+
+            int n = geometry.getSize();
+            int bestCell = -1;
+            int bestOptions = 0;
+            if (budget > 1) {
+                // Find the empty cell with the fewest candidates
+                int[] rowUsed = new int[n];
+                int[] colUsed = new int[n];
+                int[] boxUsed = new int[n];
+                for (int cell = 0; cell < cells.length; cell++) {
+                    if (cells[cell] != 0) {
+                        int bit = 1 << (cells[cell] - 1);
+                        rowUsed[geometry.rowOf(cell)] |= bit;
+                        colUsed[geometry.colOf(cell)] |= bit;
+                        boxUsed[geometry.boxOf(cell)] |= bit;
+                    }
+                }
+                int bestCount = Integer.MAX_VALUE;
+                for (int cell = 0; cell < cells.length; cell++) {
+                    if (cells[cell] == 0) {
+                        int options = ~(rowUsed[geometry.rowOf(cell)] | colUsed[geometry.colOf(cell)]
+                                | boxUsed[geometry.boxOf(cell)]) & ((1 << n) - 1);
+                        int count = Integer.bitCount(options);
+                        if (count < bestCount) {
+                            bestCount = count;
+                            bestCell = cell;
+                            bestOptions = options;
+                        }
+                    }
+                }
+                if (bestCount == 0) {
+                    return;
+                }
+            }
+
+            if (bestCell < 0) {
+                // Small enough (or already full): search this copy sequentially
+                PropagationSolver solver = LEAF_SOLVER.get();
+                solver.setStopFlag(found);
+                solver.setBranchLimit(Long.MAX_VALUE);
+                boolean solved = solver.solve(cells);
+                solver.setStopFlag(null);
+                if (solved && found.compareAndSet(false, true)) {
+                    result.set(cells);
+                }
+                return;
+            }
+
+            int childBudget = Math.max(1, budget / Integer.bitCount(bestOptions));
+            List<SearchTask> children = new ArrayList<>();
+            while (bestOptions != 0) {
+                int bit = bestOptions & -bestOptions;
+                bestOptions ^= bit;
+                byte[] child = cells.clone();
+                child[bestCell] = (byte) (Integer.numberOfTrailingZeros(bit) + 1);
+                children.add(new SearchTask(child, geometry, childBudget, found, result));
+            }
+            invokeAll(children);
+        }
+    }
+}
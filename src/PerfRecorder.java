@@ -0,0 +1,226 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+/**
+ * This class keeps the most recent timings of the operations shown in the
+ * performance overlay: generating, solving and checking the board, and the
+ * JavaFX pulses and frames. Every metric has preallocated ring buffers for
+ * its latencies and for the heap allocated by each operation, so recording a
+ * sample never allocates. Percentiles are computed over the samples still in
+ * the ring, only when the overlay is refreshed, and do not allocate either.
+ *
+ * Recording does nothing while the recorder is disabled, which it is while
+ * the overlay is hidden. A recorder is used on the FX thread only.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PerfRecorder {
+    /**
+     * The timings that are recorded.
+     */
+    public enum Metric {
+        /** Taking a new puzzle from the pool, on the engine thread. */
+        GENERATE("Generate"),
+        /** Solving the board, on the engine thread. */
+        SOLVE("Solve"),
+        /** Highlighting the checked cells, on the FX thread. */
+        CHECK("Check"),
+        /** CSS and layout of one pulse. */
+        PULSE("Pulse"),
+        /** Time between two frames. */
+        FRAME("Frame");
+
+        private final String label;
+
+        /**
+         * Creates a metric.
+         *
+         * @param label The name shown in the overlay.
+         */
+        Metric(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Returns the name shown in the overlay.
+         *
+         * @return the label.
+         */
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * Number of recent samples kept per metric, read from
+     * sudoku.perf.samples.
+     */
+    public static final int CAPACITY = Integer.getInteger("sudoku.perf.samples", 128);
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationMXBean();
+    private static final Metric[] METRICS = Metric.values();
+
+    private final long[][] nanos = new long[METRICS.length][CAPACITY];
+    private final long[][] bytes = new long[METRICS.length][CAPACITY];
+    // Next slot of each ring and the number of samples in it
+    private final int[] next = new int[METRICS.length];
+    private final int[] count = new int[METRICS.length];
+    // Sorted copy of a ring for percentiles
+    private final long[] scratch = new long[CAPACITY];
+    private boolean enabled;
+
+    /**
+     * Returns whether samples are recorded.
+     *
+     * @return true while the overlay is shown.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. The samples already recorded are kept.
+     *
+     * @param enabled Whether to record samples.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a latency without an allocation figure.
+     *
+     * @param metric The metric.
+     * @param nanos  The latency in nanoseconds.
+     */
+    public void record(Metric metric, long nanos) {
+        record(metric, nanos, -1);
+    }
+
+    /**
+     * Records a latency and the heap allocated meanwhile.
+     *
+     * @param metric         The metric.
+     * @param nanos          The latency in nanoseconds.
+     * @param allocatedBytes The bytes allocated, or -1 if not measured.
+     */
+    public void record(Metric metric, long nanos, long allocatedBytes) {
+        if (!enabled) {
+            return;
+        }
+        int m = metric.ordinal();
+        int slot = next[m];
+        this.nanos[m][slot] = nanos;
+        this.bytes[m][slot] = allocatedBytes;
+        next[m] = slot + 1 == CAPACITY ? 0 : slot + 1;
+        if (count[m] < CAPACITY) {
+            count[m]++;
+        }
+    }
+
+    /**
+     * Returns the number of samples of a metric still in its ring.
+     *
+     * @param metric The metric.
+     * @return the sample count.
+     */
+    public int getCount(Metric metric) {
+        return count[metric.ordinal()];
+    }
+
+    /**
+     * Returns the latest latency of a metric.
+     *
+     * @param metric The metric.
+     * @return the latency in nanoseconds, or 0 if there is none.
+     */
+    public long getLast(Metric metric) {
+        return count[metric.ordinal()] == 0 ? 0 : nanos[metric.ordinal()][lastSlot(metric)];
+    }
+
+    /**
+     * Returns the heap allocated by the latest operation of a metric.
+     *
+     * @param metric The metric.
+     * @return the bytes allocated, or -1 if not measured.
+     */
+    public long getLastAllocated(Metric metric) {
+        return count[metric.ordinal()] == 0 ? -1 : bytes[metric.ordinal()][lastSlot(metric)];
+    }
+
+    /**
+     * Returns the latency below which the given fraction of the recent
+     * samples of a metric fall.
+     *
+     * @param metric   The metric.
+     * @param fraction The percentile as a fraction, for example 0.99.
+     * @return the latency in nanoseconds, or 0 if there are no samples.
+     */
+    public long getPercentile(Metric metric, double fraction) {
+        int m = metric.ordinal();
+        int n = count[m];
+        if (n == 0) {
+            return 0;
+        }
+        // Insertion sort, since Arrays.sort may allocate when merging runs
+        for (int i = 0; i < n; i++) {
+            long value = nanos[m][i];
+            int j = i;
+            while (j > 0 && scratch[j - 1] > value) {
+                scratch[j] = scratch[j - 1];
+                j--;
+            }
+            scratch[j] = value;
+        }
+        int index = (int) Math.ceil(fraction * n) - 1;
+        return scratch[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    /**
+     * Forgets every sample.
+     */
+    public void clear() {
+        Arrays.fill(next, 0);
+        Arrays.fill(count, 0);
+    }
+
+    /**
+     * Returns the heap allocated so far by the current thread.
+     *
+     * @return the bytes allocated, or -1 if the JVM cannot measure it.
+     */
+    public static long threadAllocatedBytes() {
+        return THREADS == null ? -1 : THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Returns the slot of the latest sample of a metric.
+     *
+     * @param metric The metric.
+     * @return the slot index.
+     */
+    private int lastSlot(Metric metric) {
+        int slot = next[metric.ordinal()] - 1;
+        return slot < 0 ? CAPACITY - 1 : slot;
+    }
+
+    /**
+     * Returns the thread bean that can measure allocations, if the JVM has
+     * one.
+     *
+     * @return the bean, or null.
+     */
+    private static com.sun.management.ThreadMXBean allocationMXBean() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean extended = (com.sun.management.ThreadMXBean) threads;
+            if (extended.isThreadAllocatedMemorySupported() && extended.isThreadAllocatedMemoryEnabled()) {
+                return extended;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,432 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class solves a Sudoku board by constraint propagation with a search
+ * on top. Every empty cell keeps a bitmask of the digits it can still take.
+ * Naked singles (a cell with one candidate left) and hidden singles (a digit
+ * that fits in only one cell of a row, column or subgrid) are placed until
+ * nothing changes. Only then does the solver branch, on the empty cell with
+ * the fewest candidates (minimum remaining values).
+ *
+ * Every change to a cell is pushed on a trail, so backtracking undoes a
+ * branch by popping the trail instead of copying the board. Most ordinary
+ * puzzles are solved by propagation alone without any branching.
+ *
+ * The same search can also count solutions up to a limit, which the
+ * generator uses to check that a puzzle has exactly one solution.
+ *
+ * A search can be stopped early, either after a number of branches or when
+ * a shared stop flag is set by another thread. wasStopped tells a stopped
+ * search apart from a board that has no solution.
+ *
+ * The solver counts the digits placed by propagation, the branches tried and
+ * the branches that failed. The counters add up over solves until
+ * resetCounters is called.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PropagationSolver implements SudokuSolver {
+    // Marks a trail entry that also placed a digit in its cell
+    private static final int ASSIGNED = 1 << 30;
+
+    private BoardGeometry geometry;
+    private int size;
+    private int cellCount;
+    private int fullMask;
+    // The cells of every row, column and subgrid, n cells per unit
+    private int[] unitCells;
+
+    private int[] value;
+    private int[] candidates;
+    private int emptyCount;
+    private int[] trailCell;
+    private int[] trailCandidates;
+    private int trailSize;
+    // Cells that were left with a single candidate and still need placing
+    private int[] pending;
+    private int pendingSize;
+
+    // Number of solutions to find before the search stops
+    private int solutionLimit;
+    private int solutionsFound;
+
+    // Early stopping: a branch budget per solve and a flag set by other threads
+    private long branchLimit = Long.MAX_VALUE;
+    private long branchesThisSolve;
+    private AtomicBoolean stopFlag;
+    private boolean stopped;
+
+    private long propagations;
+    private long branches;
+    private long backtracks;
+
+    /**
+     * Solves the given flat board in place using propagation and MRV
+     * branching.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    @Override
+    public boolean solve(byte[] cells) {
+        solutionLimit = 1;
+        solutionsFound = 0;
+        if (!load(cells) || !search()) {
+            return false;
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            cells[cell] = (byte) value[cell];
+        }
+        return true;
+    }
+
+    /**
+     * Counts the solutions of the board, stopping as soon as limit solutions
+     * have been found. The board itself is not changed. Use a limit of 2 to
+     * check that a puzzle has a unique solution.
+     *
+     * @param board The 2D array representing the Sudoku board.
+     * @param limit The number of solutions after which to stop.
+     * @return the number of solutions found, at most limit.
+     */
+    public int countSolutions(int[][] board, int limit) {
+        return countSolutions(BoardGeometry.of(board.length).toCells(board), limit);
+    }
+
+    /**
+     * Counts the solutions of a flat board, stopping as soon as limit
+     * solutions have been found. The board itself is not changed.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @param limit The number of solutions after which to stop.
+     * @return the number of solutions found, at most limit.
+     */
+    public int countSolutions(byte[] cells, int limit) {
+        solutionLimit = limit;
+        solutionsFound = 0;
+        if (load(cells)) {
+            search();
+        }
+        return solutionsFound;
+    }
+
+    /**
+     * Limits the number of branches a single solve may try before it stops.
+     *
+     * @param limit The branch budget, or Long.MAX_VALUE for no limit.
+     */
+    public void setBranchLimit(long limit) {
+        branchLimit = limit;
+    }
+
+    /**
+     * Sets a flag that stops the search as soon as it becomes true. The flag
+     * is checked before every branch, so it can be set from another thread.
+     *
+     * @param flag The shared stop flag, or null to never stop.
+     */
+    @Override
+    public void setStopFlag(AtomicBoolean flag) {
+        stopFlag = flag;
+    }
+
+    /**
+     * Returns whether the last solve or count stopped early because of the
+     * branch limit or the stop flag, rather than finishing its search.
+     *
+     * @return true if the last search was stopped.
+     */
+    public boolean wasStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the number of digits placed by naked and hidden singles.
+     *
+     * @return the propagation count.
+     */
+    public long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * Returns the number of guesses made on the cell with the fewest
+     * candidates.
+     *
+     * @return the branch count.
+     */
+    public long getBranches() {
+        return branches;
+    }
+
+    /**
+     * Returns the number of guesses that led to a contradiction and were
+     * undone.
+     *
+     * @return the backtrack count.
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * Returns the number of guesses made, as the search nodes of this solver.
+     *
+     * @return the branch count.
+     */
+    @Override
+    public long getNodeCount() {
+        return branches;
+    }
+
+    /**
+     * Returns the number of guesses undone.
+     *
+     * @return the backtrack count.
+     */
+    @Override
+    public long getBacktrackCount() {
+        return backtracks;
+    }
+
+    /**
+     * Sets the propagation, branch and backtrack counters back to zero.
+     */
+    public void resetCounters() {
+        propagations = 0;
+        branches = 0;
+        backtracks = 0;
+    }
+
+    /**
+     * Loads the board into the candidate arrays and places its given digits.
+     *
+     * @param cells The flat board.
+     * @return false if two given digits already conflict.
+     */
+    private boolean load(byte[] cells) {
+        if (geometry == null || cells.length != cellCount) {
+            build(BoardGeometry.ofCells(cells.length));
+        }
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            value[cell] = 0;
+            candidates[cell] = fullMask;
+        }
+        emptyCount = cellCount;
+        trailSize = 0;
+        pendingSize = 0;
+        branchesThisSolve = 0;
+        stopped = false;
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            int num = cells[cell];
+            if (num != 0) {
+                int bit = 1 << (num - 1);
+                if ((candidates[cell] & bit) == 0 || !assign(cell, bit)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Propagates, then branches on the most constrained cell. A completed
+     * board counts as a solution, and the search stops once the solution
+     * limit is reached, leaving the last solution in place.
+     *
+     * @return true if the solution limit was reached.
+     */
+    private boolean search() {
+        if (!propagate()) {
+            return false;
+        }
+        if (emptyCount == 0) {
+            solutionsFound++;
+            return solutionsFound >= solutionLimit;
+        }
+
+        // Minimum remaining values: the empty cell with the fewest candidates
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (value[cell] == 0) {
+                int count = Integer.bitCount(candidates[cell]);
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    if (count == 2) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        int mark = trailSize;
+        int options = candidates[best];
+        while (options != 0) {
+            if (branchesThisSolve >= branchLimit || (stopFlag != null && stopFlag.get())) {
+                stopped = true;
+            }
+            if (stopped) {
+                return false;
+            }
+            int bit = options & -options;
+            options ^= bit;
+            branches++;
+            branchesThisSolve++;
+            if (assign(best, bit) && search()) {
+                return true;
+            }
+            undo(mark);
+            if (stopped) {
+                return false;
+            }
+            backtracks++;
+        }
+        return false;
+    }
+
+    /**
+     * Places naked and hidden singles until no more can be found.
+     *
+     * @return false if a contradiction was found.
+     */
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            // Naked singles
+            while (pendingSize > 0) {
+                int cell = pending[--pendingSize];
+                if (value[cell] == 0) {
+                    propagations++;
+                    if (!assign(cell, candidates[cell])) {
+                        return false;
+                    }
+                }
+            }
+
+            // Hidden singles
+            changed = false;
+            for (int u = 0; u < 3 * size && pendingSize == 0; u++) {
+                int base = u * size;
+                int once = 0;
+                int twice = 0;
+                int placed = 0;
+                for (int k = 0; k < size; k++) {
+                    int cell = unitCells[base + k];
+                    if (value[cell] != 0) {
+                        placed |= 1 << (value[cell] - 1);
+                    } else {
+                        int mask = candidates[cell];
+                        twice |= once & mask;
+                        once |= mask;
+                    }
+                }
+                if ((once | placed) != fullMask) {
+                    return false;
+                }
+                int hidden = once & ~twice;
+                while (hidden != 0) {
+                    int bit = hidden & -hidden;
+                    hidden ^= bit;
+                    for (int k = 0; k < size; k++) {
+                        int cell = unitCells[base + k];
+                        if (value[cell] == 0 && (candidates[cell] & bit) != 0) {
+                            propagations++;
+                            if (!assign(cell, bit)) {
+                                return false;
+                            }
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            if (pendingSize > 0) {
+                changed = true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places a digit in a cell and removes it from the candidates of the
+     * cell's peers. Every change is recorded on the trail.
+     *
+     * @param cell The cell index.
+     * @param bit  The digit as a single bit.
+     * @return false if a peer was left with no candidates.
+     */
+    private boolean assign(int cell, int bit) {
+        trailCell[trailSize] = cell | ASSIGNED;
+        trailCandidates[trailSize++] = candidates[cell];
+        value[cell] = Integer.numberOfTrailingZeros(bit) + 1;
+        candidates[cell] = bit;
+        emptyCount--;
+
+        int[] cellPeers = geometry.getPeers(cell);
+        for (int i = 0; i < cellPeers.length; i++) {
+            int peer = cellPeers[i];
+            int mask = candidates[peer];
+            if ((mask & bit) != 0) {
+                if (value[peer] != 0) {
+                    return false;
+                }
+                trailCell[trailSize] = peer;
+                trailCandidates[trailSize++] = mask;
+                mask ^= bit;
+                candidates[peer] = mask;
+                if (mask == 0) {
+                    return false;
+                }
+                if ((mask & (mask - 1)) == 0) {
+                    pending[pendingSize++] = peer;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pops the trail back to an earlier size, restoring every cell it changed.
+     *
+     * @param mark The trail size to return to.
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            int entry = trailCell[trailSize];
+            int cell = entry & ~ASSIGNED;
+            if (entry != cell) {
+                value[cell] = 0;
+                emptyCount++;
+            }
+            candidates[cell] = trailCandidates[trailSize];
+        }
+        pendingSize = 0;
+    }
+
+    /**
+     * Takes the unit and peer tables of a board size and allocates the working
+     * arrays for it.
+     *
+     * @param geometry The tables of the board size.
+     */
+    private void build(BoardGeometry geometry) {
+        this.geometry = geometry;
+        int n = geometry.getSize();
+        size = n;
+        cellCount = n * n;
+        fullMask = (1 << n) - 1;
+        unitCells = geometry.getUnitCells();
+
+        value = new int[cellCount];
+        candidates = new int[cellCount];
+        trailCell = new int[cellCount * (n + 1)];
+        trailCandidates = new int[cellCount * (n + 1)];
+        pending = new int[cellCount * n];
+    }
+}
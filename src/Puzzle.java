@@ -0,0 +1,97 @@
+/**
+ * This class holds a generated Sudoku puzzle together with its solution and,
+ * if it was graded, its difficulty.
+ * Both boards are copies owned by the puzzle and are never changed.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class Puzzle {
+    private final int[][] board;
+    private final int[][] solution;
+    private final Difficulty difficulty;
+
+    /**
+     * Creates an ungraded puzzle from copies of the given boards.
+     *
+     * @param board    The starting numbers, 0 for empty cells.
+     * @param solution The solved board.
+     */
+    public Puzzle(int[][] board, int[][] solution) {
+        this(board, solution, null);
+    }
+
+    /**
+     * Creates a puzzle from copies of the given boards.
+     *
+     * @param board      The starting numbers, 0 for empty cells.
+     * @param solution   The solved board.
+     * @param difficulty The grade of the puzzle, or null if it was not graded.
+     */
+    public Puzzle(int[][] board, int[][] solution, Difficulty difficulty) {
+        this.board = copy(board);
+        this.solution = copy(solution);
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Creates a puzzle from the current board and solution of a model.
+     *
+     * @param model The model holding a freshly generated puzzle.
+     * @return the puzzle.
+     */
+    public static Puzzle of(Sudoku model) {
+        return new Puzzle(model.getBoard(), model.getSolution());
+    }
+
+    /**
+     * Creates a graded puzzle from the current board and solution of a model.
+     *
+     * @param model The model holding a freshly generated puzzle.
+     * @return the puzzle with the grade of the model's board.
+     */
+    public static Puzzle graded(Sudoku model) {
+        return new Puzzle(model.getBoard(), model.getSolution(), model.grade());
+    }
+
+    /**
+     * Returns the starting numbers of the puzzle.
+     *
+     * @return a 2D array with 0 for empty cells.
+     */
+    public int[][] getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the solution of the puzzle.
+     *
+     * @return a 2D array representing the solved board.
+     */
+    public int[][] getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the grade of the puzzle.
+     *
+     * @return the difficulty, or null if the puzzle was not graded.
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Copies a board row by row.
+     *
+     * @param board The board to copy.
+     * @return a new 2D array with the same values.
+     */
+    private static int[][] copy(int[][] board) {
+        int[][] copy = new int[board.length][];
+        for (int row = 0; row < board.length; row++) {
+            copy[row] = board[row].clone();
+        }
+        return copy;
+    }
+}
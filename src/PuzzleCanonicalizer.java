@@ -0,0 +1,474 @@
+import java.util.Arrays;
+
+/**
+ * This class computes a canonical form of a board, so that a puzzle and its
+ * symmetry variants can be recognised as the same puzzle. Two boards have the
+ * same canonical form if one can be turned into the other by relabeling the
+ * digits, permuting the rows within a band, permuting the columns within a
+ * stack and transposing.
+ *
+ * Rows, columns and digits are first given signatures that do not change
+ * under those symmetries: the clue count, refined twice by the signatures of
+ * the lines and digits they meet. The rows of every band and the columns of
+ * every stack are sorted by signature, and only rows or columns with equal
+ * signatures are tried in every order. For each order, and for the board and
+ * its transpose, the digits are relabeled in order of first appearance and the
+ * smallest result is the canonical form. Boards with so many ties that more
+ * than MAX_ARRANGEMENTS orders would have to be tried, such as nearly empty
+ * boards, are not canonicalized.
+ *
+ * The canonicalizer keeps the transformation to the canonical form, so a
+ * board such as a solution can be mapped to and from it. An instance reuses
+ * its arrays and is not thread safe.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PuzzleCanonicalizer {
+    /**
+     * Largest number of row and column orders tried for one board.
+     */
+    public static final int MAX_ARRANGEMENTS = 4096;
+    private static final int REFINE_ROUNDS = 2;
+
+    private final BoardGeometry geometry;
+    private final int size;
+    private final int subgridSize;
+    // The board being canonicalized and the row, column, digit, band and
+    // stack of each of its clues
+    private final byte[] source;
+    private final int[] clueRow;
+    private final int[] clueCol;
+    private final int[] clueDigit;
+    private final int[] clueBand;
+    private final int[] clueStack;
+    private final int[] bandOf;
+    private final int[] stackOf;
+    private int clueCount;
+
+    // Signatures of the rows and columns of each orientation, and of the digits
+    private final long[][] rowSigs;
+    private final long[][] colSigs;
+    private final long[] digitSig;
+    private final long[] nextRowSig;
+    private final long[] nextColSig;
+    private final long[] nextDigitSig;
+    // Rows and columns of each orientation sorted by signature within their
+    // band or stack
+    private final int[][] sortedRowsOf;
+    private final int[][] sortedColsOf;
+    private long[] rowSig;
+    private long[] colSig;
+    private int[] sortedRows;
+    private int[] sortedCols;
+
+    // The order being tried
+    private int transposed;
+    private final int[] rowOrder;
+    private final int[] colOrder;
+    // Source cell of the current order at row i and column j is
+    // rowOffset[i] + colOffset[j]
+    private final int[] rowOffset;
+    private final int[] colOffset;
+    private final boolean[] used;
+    private final byte[] label;
+    private final byte[] candidate;
+
+    // The smallest order found and its canonical board
+    private boolean found;
+    private int bestTransposed;
+    private final int[] bestRowOrder;
+    private final int[] bestColOrder;
+    private final byte[] bestLabel;
+    private final byte[] unlabel;
+    private final byte[] canonical;
+    private long key;
+
+    /**
+     * Creates a canonicalizer for one board size.
+     *
+     * @param geometry The tables of the board size.
+     */
+    public PuzzleCanonicalizer(BoardGeometry geometry) {
+        this.geometry = geometry;
+        this.size = geometry.getSize();
+        this.subgridSize = geometry.getSubgridSize();
+        source = new byte[geometry.getCellCount()];
+        clueRow = new int[geometry.getCellCount()];
+        clueCol = new int[geometry.getCellCount()];
+        clueDigit = new int[geometry.getCellCount()];
+        clueBand = new int[geometry.getCellCount()];
+        clueStack = new int[geometry.getCellCount()];
+        bandOf = new int[geometry.getCellCount()];
+        stackOf = new int[geometry.getCellCount()];
+        for (int cell = 0; cell < bandOf.length; cell++) {
+            bandOf[cell] = geometry.rowOf(cell) / subgridSize;
+            stackOf[cell] = geometry.colOf(cell) / subgridSize;
+        }
+        rowSigs = new long[2][size];
+        colSigs = new long[2][size];
+        digitSig = new long[size + 1];
+        nextRowSig = new long[size];
+        nextColSig = new long[size];
+        nextDigitSig = new long[size + 1];
+        sortedRowsOf = new int[2][size];
+        sortedColsOf = new int[2][size];
+        rowOrder = new int[size];
+        colOrder = new int[size];
+        rowOffset = new int[size];
+        colOffset = new int[size];
+        used = new boolean[size];
+        label = new byte[size + 1];
+        candidate = new byte[geometry.getCellCount()];
+        bestRowOrder = new int[size];
+        bestColOrder = new int[size];
+        bestLabel = new byte[size + 1];
+        unlabel = new byte[size + 1];
+        canonical = new byte[geometry.getCellCount()];
+    }
+
+    /**
+     * Computes the canonical form of a 2D board, such as one returned by
+     * Sudoku.getBoard().
+     *
+     * @param board The board, 0 for empty cells.
+     * @return true if the board was canonicalized, false if it has too many
+     *         symmetric orders.
+     */
+    public boolean canonicalize(int[][] board) {
+        geometry.flatten(board, source);
+        return canonicalizeSource();
+    }
+
+    /**
+     * Computes the canonical form of a flat board.
+     *
+     * @param cells The flat board, 0 for empty cells.
+     * @return true if the board was canonicalized, false if it has too many
+     *         symmetric orders.
+     */
+    public boolean canonicalize(byte[] cells) {
+        System.arraycopy(cells, 0, source, 0, source.length);
+        return canonicalizeSource();
+    }
+
+    /**
+     * Returns the canonical board of the last successful canonicalize().
+     *
+     * @return the shared canonical board, which must not be changed.
+     */
+    public byte[] getCanonicalCells() {
+        return canonical;
+    }
+
+    /**
+     * Returns a 64-bit hash of the canonical board of the last successful
+     * canonicalize(). Boards in the same symmetry class have the same key.
+     *
+     * @return the key.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    /**
+     * Maps a board in the position of the last canonicalized board, such as
+     * its solution, to the canonical position and labels.
+     *
+     * @param cells The flat board to map.
+     * @return a new flat board in canonical form.
+     */
+    public byte[] toCanonical(byte[] cells) {
+        byte[] result = new byte[cells.length];
+        for (int i = 0, cell = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                result[cell++] = bestLabel[cells[sourceCell(bestTransposed, bestRowOrder[i], bestColOrder[j])]];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Maps a board in canonical form, such as a cached solution, back to the
+     * position and labels of the last canonicalized board.
+     *
+     * @param canonicalCells The flat board in canonical form.
+     * @param cells          The flat board receiving the mapped values.
+     */
+    public void fromCanonical(byte[] canonicalCells, byte[] cells) {
+        for (int i = 0, cell = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells[sourceCell(bestTransposed, bestRowOrder[i], bestColOrder[j])] = unlabel[canonicalCells[cell++]];
+            }
+        }
+    }
+
+    /**
+     * Finds the smallest arrangement of the source board over both
+     * orientations.
+     *
+     * @return whether the canonical form was found.
+     */
+    private boolean canonicalizeSource() {
+        // Every cell is written and only clues advance the count, which
+        // avoids a hard to predict branch per cell
+        clueCount = 0;
+        for (int cell = 0; cell < source.length; cell++) {
+            clueRow[clueCount] = geometry.rowOf(cell);
+            clueCol[clueCount] = geometry.colOf(cell);
+            clueBand[clueCount] = bandOf[cell];
+            clueStack[clueCount] = stackOf[cell];
+            clueDigit[clueCount] = source[cell];
+            clueCount += source[cell] != 0 ? 1 : 0;
+        }
+
+        // The transposed board has the signatures with rows and columns swapped
+        refine(rowSigs[0], colSigs[0]);
+        System.arraycopy(rowSigs[0], 0, colSigs[1], 0, size);
+        System.arraycopy(colSigs[0], 0, rowSigs[1], 0, size);
+        long arrangements = 0;
+        for (int t = 0; t < 2; t++) {
+            arrangements += countOrders(rowSigs[t], sortedRowsOf[t]) * countOrders(colSigs[t], sortedColsOf[t]);
+        }
+        if (arrangements > MAX_ARRANGEMENTS) {
+            return false;
+        }
+
+        found = false;
+        for (transposed = 0; transposed < 2; transposed++) {
+            rowSig = rowSigs[transposed];
+            colSig = colSigs[transposed];
+            sortedRows = sortedRowsOf[transposed];
+            sortedCols = sortedColsOf[transposed];
+            Arrays.fill(used, false);
+            chooseRow(0);
+        }
+        completeLabels();
+        key = hash(canonical);
+        return true;
+    }
+
+    /**
+     * Computes the signatures of the rows and columns of the source board.
+     * Rows and columns are treated alike, so that swapping the results gives
+     * the signatures of the transposed board.
+     *
+     * @param rowSig Receives the row signatures.
+     * @param colSig Receives the column signatures.
+     */
+    private void refine(long[] rowSig, long[] colSig) {
+        Arrays.fill(rowSig, 0);
+        Arrays.fill(colSig, 0);
+        Arrays.fill(digitSig, 0);
+        for (int i = 0; i < clueCount; i++) {
+            rowSig[clueRow[i]]++;
+            colSig[clueCol[i]]++;
+            digitSig[clueDigit[i]]++;
+        }
+
+        for (int round = 0; round < REFINE_ROUNDS; round++) {
+            for (int i = 0; i < size; i++) {
+                nextRowSig[i] = mix(rowSig[i]);
+                nextColSig[i] = mix(colSig[i]);
+            }
+            for (int d = 1; d <= size; d++) {
+                nextDigitSig[d] = mix(digitSig[d]);
+            }
+            // Sums do not depend on the order of the rows, columns or digits
+            for (int i = 0; i < clueCount; i++) {
+                int r = clueRow[i];
+                int c = clueCol[i];
+                int digit = clueDigit[i];
+                nextRowSig[r] += mix(colSig[c] * 31 + digitSig[digit] * 961 + clueStack[i]);
+                nextColSig[c] += mix(rowSig[r] * 31 + digitSig[digit] * 961 + clueBand[i]);
+                nextDigitSig[digit] += mix(rowSig[r] + colSig[c]);
+            }
+            System.arraycopy(nextRowSig, 0, rowSig, 0, size);
+            System.arraycopy(nextColSig, 0, colSig, 0, size);
+            System.arraycopy(nextDigitSig, 1, digitSig, 1, size);
+        }
+    }
+
+    /**
+     * Sorts the lines of every band or stack by signature and counts the
+     * orders in which lines with equal signatures can be arranged.
+     *
+     * @param sig    The signatures of the lines.
+     * @param sorted Receives the lines sorted within each band or stack.
+     * @return the number of orders.
+     */
+    private long countOrders(long[] sig, int[] sorted) {
+        long orders = 1;
+        for (int band = 0; band < size; band += subgridSize) {
+            // Insertion sort of the few lines of one band
+            for (int i = band; i < band + subgridSize; i++) {
+                int line = i;
+                int j = i - 1;
+                while (j >= band && sig[sorted[j]] > sig[line]) {
+                    sorted[j + 1] = sorted[j];
+                    j--;
+                }
+                sorted[j + 1] = line;
+            }
+            int run = 1;
+            for (int i = band + 1; i < band + subgridSize; i++) {
+                run = sig[sorted[i]] == sig[sorted[i - 1]] ? run + 1 : 1;
+                orders *= run;
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Tries every row with the signature of the given position, then the
+     * column orders.
+     *
+     * @param position The row position being filled.
+     */
+    private void chooseRow(int position) {
+        if (position == size) {
+            for (int i = 0; i < size; i++) {
+                rowOffset[i] = transposed == 0 ? rowOrder[i] * size : rowOrder[i];
+            }
+            Arrays.fill(used, false);
+            chooseCol(0);
+            // Restore the row marks for the positions still being tried
+            Arrays.fill(used, true);
+            return;
+        }
+        int band = position - position % subgridSize;
+        long sig = rowSig[sortedRows[position]];
+        for (int k = band; k < band + subgridSize; k++) {
+            int row = sortedRows[k];
+            if (!used[row] && rowSig[row] == sig) {
+                used[row] = true;
+                rowOrder[position] = row;
+                chooseRow(position + 1);
+                used[row] = false;
+            }
+        }
+    }
+
+    /**
+     * Tries every column with the signature of the given position and
+     * compares each complete order with the best one.
+     *
+     * @param position The column position being filled.
+     */
+    private void chooseCol(int position) {
+        if (position == size) {
+            compareCandidate();
+            return;
+        }
+        int stack = position - position % subgridSize;
+        long sig = colSig[sortedCols[position]];
+        for (int k = stack; k < stack + subgridSize; k++) {
+            int col = sortedCols[k];
+            if (!used[col] && colSig[col] == sig) {
+                used[col] = true;
+                colOrder[position] = col;
+                colOffset[position] = transposed == 0 ? col : col * size;
+                chooseCol(position + 1);
+                used[col] = false;
+            }
+        }
+    }
+
+    /**
+     * Relabels the board in the current order and keeps it if it is smaller
+     * than the best one. The comparison stops at the first larger cell.
+     */
+    private void compareCandidate() {
+        // Unlabeled digits are -1, so only a digit seen for the first time
+        // takes the branch, while empty cells keep the label 0
+        Arrays.fill(label, (byte) -1);
+        label[0] = 0;
+        byte nextLabel = 1;
+        boolean smaller = !found;
+        for (int i = 0, cell = 0; i < size; i++) {
+            int offset = rowOffset[i];
+            for (int j = 0; j < size; j++, cell++) {
+                int digit = source[offset + colOffset[j]];
+                if (label[digit] < 0) {
+                    label[digit] = nextLabel++;
+                }
+                byte value = label[digit];
+                if (!smaller) {
+                    if (value > canonical[cell]) {
+                        return;
+                    }
+                    smaller = value < canonical[cell];
+                }
+                candidate[cell] = value;
+            }
+        }
+        if (smaller) {
+            found = true;
+            System.arraycopy(candidate, 0, canonical, 0, canonical.length);
+            bestTransposed = transposed;
+            System.arraycopy(rowOrder, 0, bestRowOrder, 0, size);
+            System.arraycopy(colOrder, 0, bestColOrder, 0, size);
+            System.arraycopy(label, 0, bestLabel, 0, label.length);
+        }
+    }
+
+    /**
+     * Gives the digits that do not appear on the board the remaining labels,
+     * so that a solution can be mapped, and builds the inverse labels.
+     */
+    private void completeLabels() {
+        byte nextLabel = 1;
+        for (int d = 1; d <= size; d++) {
+            if (bestLabel[d] > 0) {
+                nextLabel++;
+            }
+        }
+        for (int d = 1; d <= size; d++) {
+            if (bestLabel[d] < 0) {
+                bestLabel[d] = nextLabel++;
+            }
+            unlabel[bestLabel[d]] = (byte) d;
+        }
+    }
+
+    /**
+     * Returns the source cell at a position of an orientation.
+     *
+     * @param transposed 1 if the board is transposed, 0 otherwise.
+     * @param row        The row in that orientation.
+     * @param col        The column in that orientation.
+     * @return the index in the flat source board.
+     */
+    private int sourceCell(int transposed, int row, int col) {
+        return transposed == 0 ? row * size + col : col * size + row;
+    }
+
+    /**
+     * Hashes a canonical board into a key.
+     *
+     * @param cells The flat board.
+     * @return the 64-bit key.
+     */
+    private static long hash(byte[] cells) {
+        long h = cells.length;
+        for (int i = 0; i < cells.length; i++) {
+            h = h * 31 + cells[i];
+            if ((i & 7) == 7) {
+                h = mix(h);
+            }
+        }
+        return mix(h);
+    }
+
+    /**
+     * Scrambles the bits of a value (the SplitMix64 finalizer).
+     *
+     * @param x The value.
+     * @return the scrambled value.
+     */
+    private static long mix(long x) {
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
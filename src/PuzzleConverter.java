@@ -0,0 +1,199 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * This class is a command line tool that converts puzzle collections between
+ * the one-line text format and the binary format of BinaryPuzzleFormat, and
+ * compares how fast each format can be loaded.
+ *
+ * Usage:
+ * java PuzzleConverter to-binary input.txt output.sdkb [--solutions]
+ * java PuzzleConverter to-text input.sdkb output.txt
+ * java PuzzleConverter benchmark input.txt
+ *
+ * With --solutions every puzzle is solved while converting and the solution is
+ * stored in the same record.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PuzzleConverter {
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    /**
+     * Runs the command given on the command line.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("to-binary")) {
+            boolean withSolutions = args.length > 3 && args[3].equals("--solutions");
+            long count = toBinary(Paths.get(args[1]), Paths.get(args[2]), withSolutions);
+            System.out.println("Wrote " + count + " puzzles to " + args[2]);
+        } else if (args.length >= 3 && args[0].equals("to-text")) {
+            long count = toText(Paths.get(args[1]), Paths.get(args[2]));
+            System.out.println("Wrote " + count + " puzzles to " + args[2]);
+        } else if (args.length >= 2 && args[0].equals("benchmark")) {
+            benchmark(Paths.get(args[1]));
+        } else {
+            System.out.println("Usage: java PuzzleConverter to-binary input.txt output.sdkb [--solutions]");
+            System.out.println("       java PuzzleConverter to-text input.sdkb output.txt");
+            System.out.println("       java PuzzleConverter benchmark input.txt");
+        }
+    }
+
+    /**
+     * Converts a text file to a binary puzzle file. Empty lines and lines
+     * starting with '#' are skipped.
+     *
+     * @param input         The text file, one puzzle per line.
+     * @param output        The binary file to write.
+     * @param withSolutions Whether to solve every puzzle and store the solution.
+     * @return the number of puzzles written.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static long toBinary(Path input, Path output, boolean withSolutions) throws IOException {
+        BinaryPuzzleWriter writer = null;
+        Sudoku model = null;
+        int[][] puzzle = null;
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (writer == null) {
+                    puzzle = PuzzleFormat.parse(line);
+                    writer = new BinaryPuzzleWriter(output, puzzle.length, withSolutions);
+                    model = new Sudoku(puzzle);
+                    model.setSolverMode(SolverMode.PROPAGATION);
+                } else {
+                    PuzzleFormat.parse(line, puzzle);
+                }
+
+                if (withSolutions) {
+                    model.loadPuzzle(puzzle);
+                    if (!model.solve()) {
+                        throw new IllegalArgumentException("Unsolvable puzzle: " + line);
+                    }
+                    writer.write(puzzle, model.getBoard());
+                } else {
+                    writer.write(puzzle, null);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+        }
+        return writer == null ? 0 : writer.getCount();
+    }
+
+    /**
+     * Converts a binary puzzle file to a text file with one puzzle per line.
+     *
+     * @param input  The binary file to read.
+     * @param output The text file to write.
+     * @return the number of puzzles written.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static long toText(Path input, Path output) throws IOException {
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(input);
+                BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.US_ASCII)) {
+            byte[] cells = new byte[reader.getBoardSize() * reader.getBoardSize()];
+            for (long i = 0; i < reader.getCount(); i++) {
+                reader.readPuzzle(i, cells);
+                out.write(PuzzleFormat.format(cells));
+                out.newLine();
+            }
+            return reader.getCount();
+        }
+    }
+
+    /**
+     * Compares loading every puzzle of a text file into a board with loading
+     * the same puzzles from a memory-mapped binary copy.
+     *
+     * @param input The text file, one puzzle per line.
+     * @throws IOException if a file cannot be read or written.
+     */
+    private static void benchmark(Path input) throws IOException {
+        Path binary = Files.createTempFile("puzzles", ".sdkb");
+        try {
+            long count = toBinary(input, binary, false);
+            System.out.printf("%d puzzles: text %d bytes, binary %d bytes%n", count, Files.size(input),
+                    Files.size(binary));
+
+            long checksum = 0;
+            for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+                long start = System.nanoTime();
+                checksum += loadText(input);
+                double textRate = count / ((System.nanoTime() - start) / 1e9);
+
+                start = System.nanoTime();
+                checksum += loadBinary(binary);
+                double binaryRate = count / ((System.nanoTime() - start) / 1e9);
+
+                System.out.printf("round %d: text %.0f puzzles/s, binary %.0f puzzles/s (%.1fx)%n", round + 1,
+                        textRate, binaryRate, binaryRate / textRate);
+            }
+            // Printed so that the loading work cannot be optimized away
+            System.out.println("checksum " + checksum);
+        } finally {
+            Files.deleteIfExists(binary);
+        }
+    }
+
+    /**
+     * Parses every puzzle of a text file into one reused flat board.
+     *
+     * @param input The text file.
+     * @return the sum of the first cells, as a checksum.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long loadText(Path input) throws IOException {
+        long checksum = 0;
+        byte[] cells = null;
+        try (BufferedReader in = Files.newBufferedReader(input, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                if (cells == null) {
+                    cells = new byte[line.length()];
+                }
+                PuzzleFormat.parse(line, cells);
+                checksum += cells[0];
+            }
+        }
+        return checksum;
+    }
+
+    /**
+     * Decodes every puzzle of a binary file into one reused flat board.
+     *
+     * @param input The binary file.
+     * @return the sum of the first cells, as a checksum.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long loadBinary(Path input) throws IOException {
+        long checksum = 0;
+        try (BinaryPuzzleReader reader = new BinaryPuzzleReader(input)) {
+            byte[] cells = new byte[reader.getBoardSize() * reader.getBoardSize()];
+            for (long i = 0; i < reader.getCount(); i++) {
+                reader.readPuzzle(i, cells);
+                checksum += cells[0];
+            }
+        }
+        return checksum;
+    }
+}
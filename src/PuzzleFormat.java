@@ -0,0 +1,131 @@
+/**
+ * This class converts boards to and from the one-line text format used by
+ * puzzle collections: the cells in row-major order, one character per cell,
+ * with '.' or '0' for an empty cell. A 9x9 board is 81 characters. Larger
+ * boards use '1'-'9' and then 'A', 'B', ... for the digits 10 and up.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class PuzzleFormat {
+    private static final String DIGITS = "123456789ABCDEFGHIJKLMNOP";
+
+    private PuzzleFormat() {
+    }
+
+    /**
+     * Returns the board size for a line of the given length.
+     *
+     * @param length The number of characters in the line.
+     * @return the board size, or -1 if no supported board has that many cells.
+     */
+    public static int boardSizeOf(int length) {
+        for (int size = 4; size <= 25; size++) {
+            int subgrid = (int) Math.sqrt(size);
+            if (subgrid * subgrid == size && size * size == length) {
+                return size;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses a line into a new board.
+     *
+     * @param line The puzzle text.
+     * @return the 2D array of the puzzle, 0 for empty cells.
+     * @throws IllegalArgumentException if the line is not a valid puzzle.
+     */
+    public static int[][] parse(CharSequence line) {
+        int size = boardSizeOf(line.length());
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid puzzle length: " + line.length());
+        }
+        int[][] board = new int[size][size];
+        parse(line, board);
+        return board;
+    }
+
+    /**
+     * Parses a line into an existing board without allocating.
+     *
+     * @param line  The puzzle text.
+     * @param board The board that receives the values, of the matching size.
+     * @throws IllegalArgumentException if the line is not a valid puzzle.
+     */
+    public static void parse(CharSequence line, int[][] board) {
+        int size = board.length;
+        if (line.length() != size * size) {
+            throw new IllegalArgumentException("Invalid puzzle length: " + line.length());
+        }
+        for (int i = 0; i < size * size; i++) {
+            board[i / size][i % size] = valueOf(line.charAt(i), size);
+        }
+    }
+
+    /**
+     * Parses a line into an existing flat board without allocating.
+     *
+     * @param line  The puzzle text.
+     * @param cells The flat board that receives the values, of the matching
+     *              size.
+     * @throws IllegalArgumentException if the line is not a valid puzzle.
+     */
+    public static void parse(CharSequence line, byte[] cells) {
+        if (line.length() != cells.length) {
+            throw new IllegalArgumentException("Invalid puzzle length: " + line.length());
+        }
+        int size = boardSizeOf(cells.length);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = (byte) valueOf(line.charAt(i), size);
+        }
+    }
+
+    /**
+     * Writes a board as a line of text.
+     *
+     * @param board The board to write.
+     * @return the puzzle text.
+     */
+    public static String format(int[][] board) {
+        StringBuilder builder = new StringBuilder(board.length * board.length);
+        for (int[] row : board) {
+            for (int value : row) {
+                builder.append(value == 0 ? '.' : DIGITS.charAt(value - 1));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes a flat board as a line of text.
+     *
+     * @param cells The flat board to write.
+     * @return the puzzle text.
+     */
+    public static String format(byte[] cells) {
+        char[] line = new char[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            line[i] = cells[i] == 0 ? '.' : DIGITS.charAt(cells[i] - 1);
+        }
+        return new String(line);
+    }
+
+    /**
+     * Converts one character to a cell value.
+     *
+     * @param c    The character.
+     * @param size The board size.
+     * @return the cell value, 0 for empty.
+     */
+    private static int valueOf(char c, int size) {
+        if (c == '.' || c == '0') {
+            return 0;
+        }
+        int value = DIGITS.indexOf(Character.toUpperCase(c)) + 1;
+        if (value < 1 || value > size) {
+            throw new IllegalArgumentException("Invalid puzzle character: " + c);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,202 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a load test client for PuzzleServer. A number of clients,
+ * each on its own virtual thread, send requests to one endpoint of a service
+ * on localhost back to back, and the client prints the requests per second
+ * and the latency percentiles at the end. Latencies go into a
+ * LatencyHistogram, so a long run does not keep every sample.
+ *
+ * The solve and validate endpoints need boards. They are read from a file in
+ * the one-line text format, or if no file is given, a hundred puzzles are
+ * first fetched from the generate endpoint with fixed seeds. A number of
+ * warm-up requests are sent before measuring, so the service has been
+ * compiled by the JIT when the measured requests start.
+ *
+ * Usage: java PuzzleLoadTest [--port N] [--endpoint generate|solve|validate]
+ * [--clients N] [--requests N] [--warmup N] [puzzles]
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PuzzleLoadTest {
+    // Puzzles fetched from the service when no file is given
+    private static final int GENERATED_PUZZLES = 100;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String endpoint;
+    private final List<String> puzzles;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Creates a load test.
+     *
+     * @param port     The port of the service on localhost.
+     * @param endpoint The endpoint to call: generate, solve or validate.
+     * @param puzzles  The boards sent to solve and validate.
+     */
+    public PuzzleLoadTest(int port, String endpoint, List<String> puzzles) {
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        baseUrl = "http://localhost:" + port;
+        this.endpoint = endpoint;
+        this.puzzles = puzzles;
+    }
+
+    /**
+     * Parses the command line, runs the load test and prints the results.
+     *
+     * @param args The command line arguments.
+     * @throws IOException          if the puzzle file cannot be read or the
+     *                              service cannot be reached.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = PuzzleServer.DEFAULT_PORT;
+        String endpoint = "solve";
+        int clients = 64;
+        int requests = 100000;
+        int warmup = 10000;
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--endpoint") && i + 1 < args.length) {
+                endpoint = args[++i];
+            } else if (args[i].equals("--clients") && i + 1 < args.length) {
+                clients = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--requests") && i + 1 < args.length) {
+                requests = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--warmup") && i + 1 < args.length) {
+                warmup = Integer.parseInt(args[++i]);
+            } else {
+                file = args[i];
+            }
+        }
+
+        PuzzleLoadTest test = new PuzzleLoadTest(port, endpoint, new ArrayList<>());
+        if (!endpoint.equals("generate")) {
+            if (file != null) {
+                for (String line : Files.readAllLines(Paths.get(file), StandardCharsets.US_ASCII)) {
+                    String puzzle = line.trim();
+                    if (!puzzle.isEmpty() && !puzzle.startsWith("#")) {
+                        test.puzzles.add(puzzle);
+                    }
+                }
+            } else {
+                test.fetchPuzzles(GENERATED_PUZZLES);
+            }
+        }
+
+        test.run(clients, warmup);
+        test.latencies.reset();
+        test.failures.set(0);
+        long nanos = test.run(clients, requests);
+        test.printSummary(clients, requests, nanos);
+    }
+
+    /**
+     * Fetches puzzles from the generate endpoint, with the seeds 0, 1, ...
+     *
+     * @param count The number of puzzles.
+     * @throws IOException          if the service cannot be reached.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    private void fetchPuzzles(int count) throws IOException, InterruptedException {
+        for (int seed = 0; seed < count; seed++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/generate?seed=" + seed)).build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Could not generate a puzzle: " + response.body());
+            }
+            puzzles.add(response.body());
+        }
+    }
+
+    /**
+     * Sends requests from all clients and waits until they are answered. The
+     * requests are shared out evenly and every client sends its share one
+     * after another.
+     *
+     * @param clients  The number of clients.
+     * @param requests The total number of requests.
+     * @return the wall time in nanoseconds.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    public long run(int clients, int requests) throws InterruptedException {
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int first = requests * c / clients;
+                int last = requests * (c + 1) / clients;
+                executor.execute(() -> {
+                    for (int i = first; i < last; i++) {
+                        send(i);
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Sends one request and records its latency. Requests that fail or are
+     * not answered with 200 are counted as failures.
+     *
+     * @param index The number of the request, which picks the board.
+     */
+    private void send(int index) {
+        HttpRequest request;
+        if (endpoint.equals("generate")) {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/generate")).build();
+        } else {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/" + endpoint))
+                    .POST(HttpRequest.BodyPublishers.ofString(puzzles.get(index % puzzles.size()),
+                            StandardCharsets.US_ASCII))
+                    .build();
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.record(System.nanoTime() - start);
+            if (response.statusCode() != 200) {
+                failures.incrementAndGet();
+            }
+        } catch (IOException e) {
+            failures.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prints the throughput and latency percentiles to standard error.
+     *
+     * @param clients  The number of clients.
+     * @param requests The number of requests sent.
+     * @param nanos    The wall time in nanoseconds.
+     */
+    private void printSummary(int clients, int requests, long nanos) {
+        double seconds = nanos / 1e9;
+        System.err.printf("Sent %d %s requests in %.3f s with %d clients: %.0f requests/s, %d failed%n", requests,
+                endpoint, seconds, clients, requests / seconds, failures.get());
+        System.err.printf("Latency p50 %.1f us, p90 %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us%n",
+                latencies.getPercentile(0.50) / 1e3, latencies.getPercentile(0.90) / 1e3,
+                latencies.getPercentile(0.99) / 1e3, latencies.getPercentile(0.999) / 1e3,
+                latencies.getPercentile(1.0) / 1e3);
+    }
+}
@@ -0,0 +1,272 @@
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class keeps a bounded pool of puzzles that background worker threads
+ * generate ahead of time, so that taking a new puzzle does not run the
+ * generator on the caller's thread.
+ *
+ * The workers fill the pool up to its capacity and then wait. Once a take
+ * leaves the pool at or below the refill threshold they are woken up to fill
+ * it again. If the pool is empty the puzzle is generated on the caller's
+ * thread instead, which is counted as a miss. Such a generation can be given
+ * a stop flag, since a large board may take longer than the caller waits.
+ *
+ * A pool can be given a difficulty, in which case every puzzle is generated
+ * for that grade and carries its actual grade.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PuzzlePool {
+    /**
+     * Default number of puzzles kept ready, read from sudoku.pool.size.
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("sudoku.pool.size", 8);
+    /**
+     * Default pool size at which refilling starts, read from sudoku.pool.refill.
+     */
+    public static final int DEFAULT_REFILL_THRESHOLD = Integer.getInteger("sudoku.pool.refill", 2);
+
+    private final int subgridSize;
+    // The grade puzzles are generated for, null for ungraded puzzles
+    private final Difficulty difficulty;
+    private final int capacity;
+    private final int refillThreshold;
+    private final BlockingQueue<Puzzle> puzzles;
+    private final Object lock = new Object();
+    private final Thread[] workers;
+    private boolean refilling = true;
+    private boolean shutdown;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Creates a pool with the default capacity and refill threshold and one
+     * worker thread.
+     *
+     * @param subgridSize The subgrid size of the puzzles, 3 for 9x9 boards.
+     */
+    public PuzzlePool(int subgridSize) {
+        this(subgridSize, null);
+    }
+
+    /**
+     * Creates a pool of puzzles of one difficulty with the default capacity
+     * and refill threshold and one worker thread.
+     *
+     * @param subgridSize The subgrid size of the puzzles, 3 for 9x9 boards.
+     * @param difficulty  The grade of the puzzles, or null for ungraded ones.
+     */
+    public PuzzlePool(int subgridSize, Difficulty difficulty) {
+        this(subgridSize, difficulty, DEFAULT_CAPACITY, DEFAULT_REFILL_THRESHOLD, 1);
+    }
+
+    /**
+     * Creates a pool and starts its worker threads.
+     *
+     * @param subgridSize     The subgrid size of the puzzles, 3 for 9x9 boards.
+     * @param difficulty      The grade of the puzzles, or null for ungraded ones.
+     * @param capacity        The maximum number of puzzles kept ready.
+     * @param refillThreshold The pool size at or below which workers refill it.
+     * @param workerCount     The number of background generator threads.
+     */
+    public PuzzlePool(int subgridSize, Difficulty difficulty, int capacity, int refillThreshold,
+            int workerCount) {
+        if (capacity < 1 || refillThreshold < 0 || refillThreshold >= capacity || workerCount < 1) {
+            throw new IllegalArgumentException("Invalid pool configuration");
+        }
+        this.subgridSize = subgridSize;
+        this.difficulty = difficulty;
+        this.capacity = capacity;
+        this.refillThreshold = refillThreshold;
+        this.puzzles = new ArrayBlockingQueue<>(capacity);
+
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            String name = difficulty == null ? "puzzle-pool-" + subgridSize
+                    : "puzzle-pool-" + subgridSize + "-" + difficulty.name().toLowerCase();
+            workers[i] = new Thread(this::refill, name + "-" + i);
+            workers[i].setDaemon(true);
+            workers[i].setPriority(Thread.MIN_PRIORITY);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Takes the next ready puzzle from the pool, or generates one on the
+     * calling thread if the pool is empty.
+     *
+     * @return a new puzzle with its solution.
+     */
+    public Puzzle take() {
+        return take(null);
+    }
+
+    /**
+     * Takes the next ready puzzle from the pool, or generates one on the
+     * calling thread if the pool is empty, giving up the generation once the
+     * stop flag is set.
+     *
+     * @param stopFlag The flag that stops the generation, or null for none.
+     * @return a new puzzle with its solution.
+     * @throws CancellationException if the generation was stopped.
+     */
+    public Puzzle take(AtomicBoolean stopFlag) {
+        Puzzle puzzle = puzzles.poll();
+        if (puzzles.size() <= refillThreshold) {
+            synchronized (lock) {
+                if (!refilling) {
+                    refilling = true;
+                    lock.notifyAll();
+                }
+            }
+        }
+        if (puzzle != null) {
+            hits.incrementAndGet();
+            return puzzle;
+        }
+        misses.incrementAndGet();
+        Sudoku generator = newGenerator();
+        generator.setStopFlag(stopFlag);
+        if (difficulty == null) {
+            generator.generatePuzzle();
+            return Puzzle.of(generator);
+        }
+        return generate(generator);
+    }
+
+    /**
+     * Returns the number of puzzles that are ready right now.
+     *
+     * @return the current pool size.
+     */
+    public int size() {
+        return puzzles.size();
+    }
+
+    /**
+     * Returns the grade of the puzzles in the pool.
+     *
+     * @return the difficulty, or null if the puzzles are not graded.
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Returns the maximum number of puzzles kept ready.
+     *
+     * @return the pool capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the pool size at or below which the workers refill the pool.
+     *
+     * @return the refill threshold.
+     */
+    public int getRefillThreshold() {
+        return refillThreshold;
+    }
+
+    /**
+     * Returns the number of takes that were served from the pool.
+     *
+     * @return the hit count.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of takes that found the pool empty and had to
+     * generate a puzzle on the calling thread.
+     *
+     * @return the miss count.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Stops the worker threads. Puzzles already in the pool can still be taken.
+     */
+    public void shutdown() {
+        synchronized (lock) {
+            shutdown = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Worker loop: generates puzzles while the pool is refilling and waits
+     * once it is full.
+     */
+    private void refill() {
+        // Each worker reuses its own model to generate puzzles
+        Sudoku generator = null;
+        while (true) {
+            synchronized (lock) {
+                while (!refilling && !shutdown) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (shutdown) {
+                    return;
+                }
+            }
+
+            if (difficulty != null) {
+                if (generator == null) {
+                    generator = newGenerator();
+                }
+                puzzles.offer(generate(generator));
+            } else {
+                if (generator == null) {
+                    generator = new Sudoku(subgridSize);
+                } else {
+                    generator.clearBoard();
+                    generator.generatePuzzle();
+                }
+                puzzles.offer(Puzzle.of(generator));
+            }
+            synchronized (lock) {
+                if (puzzles.remainingCapacity() == 0) {
+                    refilling = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a model with an empty board, so that no ungraded puzzle is
+     * generated before the first graded one.
+     *
+     * @return the model to generate puzzles with.
+     */
+    private Sudoku newGenerator() {
+        int boardSize = subgridSize * subgridSize;
+        return new Sudoku(new int[boardSize][boardSize]);
+    }
+
+    /**
+     * Generates a puzzle of the pool's difficulty.
+     *
+     * @param generator The model to generate the puzzle with.
+     * @return the puzzle with its actual grade.
+     */
+    private Puzzle generate(Sudoku generator) {
+        generator.generatePuzzle(difficulty);
+        return Puzzle.graded(generator);
+    }
+}
@@ -0,0 +1,447 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class is a headless HTTP service that generates, solves and validates
+ * puzzles for many clients from one JVM, using the JDK's built-in HTTP
+ * server. Boards travel in the one-line text format of PuzzleFormat, so a
+ * 9x9 request or response body is 81 characters.
+ *
+ * GET /generate?seed=S&amp;size=N&amp;difficulty=D returns a new puzzle. The
+ * seed, the subgrid size (2 to 5, 3 by default) and the difficulty are
+ * optional, and the same seed always gives the same puzzle.
+ * POST /solve with a puzzle returns its solution, or "unsolvable" with 422.
+ * POST /validate with a board returns "solved" if it is full and breaks no
+ * rule, "valid" if it is not full yet, or "conflict N" with N the first cell
+ * whose number is repeated in its row, column or subgrid.
+ * A body that is not a board gets "invalid" with 400.
+ *
+ * Every request runs on its own virtual thread, which only reads the body
+ * and writes the answer. Generating and solving run on a fixed pool of
+ * engine threads with a bounded queue, so many waiting clients cannot take
+ * CPU from the searches, and a request that finds the queue full gets "busy"
+ * with 503 at once. Each engine thread reuses one model per board size.
+ *
+ * A request waits for its engine task for at most sudoku.server.timeout
+ * milliseconds, 10 seconds by default, and then gets "timeout" with 504. A
+ * solve that runs out of time is stopped through its solver's stop flag, so
+ * a hard board cannot keep an engine thread busy for good. BACKTRACKING has
+ * no stop flag, so the service solves with BITMASK instead, which fills the
+ * board the same way. Generating is not stopped, but it gives up on its own
+ * after a fixed number of attempts.
+ *
+ * The server sends its answers with TCP_NODELAY, through the
+ * sun.net.httpserver.nodelay property, unless that property is set already.
+ * Otherwise Nagle's algorithm and delayed ACKs add about 40 ms to every
+ * small answer, and a load test measures TCP instead of the engine.
+ *
+ * Usage: java PuzzleServer [--port N] [--threads N] [--solver MODE] [--cache N]
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class PuzzleServer {
+    /**
+     * The port the service listens on by default, read from
+     * sudoku.server.port.
+     */
+    public static final int DEFAULT_PORT = Integer.getInteger("sudoku.server.port", 8080);
+
+    /**
+     * The longest time in milliseconds a request waits for the engine, read
+     * from sudoku.server.timeout.
+     */
+    public static final int TIMEOUT_MILLIS = Integer.getInteger("sudoku.server.timeout", 10000);
+
+    // Tasks waiting for an engine thread, per engine thread
+    private static final int QUEUE_PER_THREAD = 64;
+    // Connections waiting to be accepted
+    private static final int BACKLOG = 1024;
+    // Longest body accepted, a 25x25 board plus a line break
+    private static final int MAX_BODY = 25 * 25 + 2;
+
+    private final HttpServer server;
+    private final ExecutorService requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ThreadPoolExecutor engineExecutor;
+    private final SolverMode mode;
+    // Shared by all engine threads, null when not caching
+    private final SolutionCache cache;
+    // One model per engine thread and board size, reused for every request
+    private final ThreadLocal<Sudoku[]> models = ThreadLocal.withInitial(() -> new Sudoku[26]);
+
+    static {
+        // Read once when the JDK server is first used, so it is set before that
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * Creates a service on the loopback address. It does not accept requests
+     * until it is started.
+     *
+     * @param port    The port to listen on, or 0 for any free port.
+     * @param threads The number of engine threads.
+     * @param mode    The solver mode used for every board.
+     * @param cache   The solution cache shared by the engine threads, or null
+     *                for none.
+     * @throws IOException if the port cannot be opened.
+     */
+    public PuzzleServer(int port, int threads, SolverMode mode, SolutionCache cache) throws IOException {
+        // The backtracking search cannot be stopped when a request times out
+        this.mode = mode == SolverMode.BACKTRACKING ? SolverMode.BITMASK : mode;
+        this.cache = cache;
+        AtomicInteger threadCount = new AtomicInteger();
+        engineExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * QUEUE_PER_THREAD), runnable -> {
+                    Thread thread = new Thread(runnable, "sudoku-engine-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(requestExecutor);
+        server.createContext("/generate", exchange -> handle(exchange, "GET", this::generate));
+        server.createContext("/solve", exchange -> handle(exchange, "POST", this::solve));
+        server.createContext("/validate", exchange -> handle(exchange, "POST", this::validate));
+    }
+
+    /**
+     * Parses the command line and runs the service until the JVM is stopped.
+     *
+     * @param args The command line arguments.
+     * @throws IOException if the port cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        EngineMetrics.register();
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        SolverMode mode = SolverMode.PROPAGATION;
+        SolutionCache cache = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("--port")) {
+                port = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--solver")) {
+                mode = SolverMode.valueOf(args[i + 1].toUpperCase());
+            } else if (args[i].equals("--cache")) {
+                cache = new SolutionCache(Integer.parseInt(args[i + 1]));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        PuzzleServer puzzleServer = new PuzzleServer(port, threads, mode, cache);
+        Runtime.getRuntime().addShutdownHook(new Thread(puzzleServer::stop));
+        puzzleServer.start();
+        System.err.printf("Serving puzzles on http://localhost:%d with %d engine threads (%s)%n",
+                puzzleServer.getPort(), threads, mode);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests, lets the open ones finish for up to a second
+     * and stops the engine threads.
+     */
+    public void stop() {
+        server.stop(1);
+        requestExecutor.shutdown();
+        engineExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the port the service listens on.
+     *
+     * @return the port.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Handles one request on its virtual thread and sends the answer. Every
+     * request gets an answer, and the exchange is closed even if sending it
+     * fails, so a client never waits for a reply that is not coming.
+     *
+     * @param exchange The request and response.
+     * @param method   The HTTP method the endpoint accepts.
+     * @param endpoint Computes the answer from the request.
+     * @throws IOException if the answer cannot be sent.
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        try {
+            Reply reply;
+            try {
+                if (!exchange.getRequestMethod().equals(method)) {
+                    reply = new Reply(405, method + " only");
+                } else {
+                    reply = endpoint.answer(exchange);
+                }
+            } catch (IllegalArgumentException e) {
+                reply = new Reply(400, "invalid");
+            } catch (IOException e) {
+                // The request body could not be read
+                reply = new Reply(400, "unreadable");
+            } catch (RejectedExecutionException e) {
+                reply = new Reply(503, "busy");
+            } catch (TimeoutException e) {
+                reply = new Reply(504, "timeout");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                reply = new Reply(503, "busy");
+            } catch (ExecutionException e) {
+                reply = new Reply(500, String.valueOf(e.getCause()));
+            } catch (RuntimeException e) {
+                reply = new Reply(500, String.valueOf(e));
+            }
+
+            byte[] body = reply.body.getBytes(StandardCharsets.US_ASCII);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=us-ascii");
+            exchange.sendResponseHeaders(reply.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Generates a puzzle on an engine thread.
+     *
+     * @param exchange The request, with optional seed, size and difficulty
+     *                 query parameters.
+     * @return the puzzle text.
+     * @throws InterruptedException if the request thread is interrupted.
+     * @throws ExecutionException   if generating fails.
+     * @throws TimeoutException     if generating takes too long.
+     */
+    private Reply generate(HttpExchange exchange)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        long seed = 0;
+        boolean seeded = false;
+        int subgridSize = 3;
+        Difficulty difficulty = null;
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int split = parameter.indexOf('=');
+                String name = split < 0 ? parameter : parameter.substring(0, split);
+                String value = split < 0 ? "" : parameter.substring(split + 1);
+                if (name.equals("seed")) {
+                    seed = Long.parseLong(value);
+                    seeded = true;
+                } else if (name.equals("size")) {
+                    subgridSize = Integer.parseInt(value);
+                } else if (name.equals("difficulty")) {
+                    difficulty = Difficulty.valueOf(value.toUpperCase());
+                }
+            }
+        }
+        if (subgridSize < 2 || subgridSize > 5) {
+            throw new IllegalArgumentException("Unsupported subgrid size: " + subgridSize);
+        }
+
+        Random random = seeded ? new Random(seed) : new Random();
+        int size = subgridSize * subgridSize;
+        Difficulty grade = difficulty;
+        return new Reply(200, runOnEngine(() -> {
+            Sudoku model = model(size, null);
+            if (grade == null) {
+                model.generatePuzzle(random);
+            } else {
+                model.generatePuzzle(random, grade);
+            }
+            return PuzzleFormat.format(model.getCells());
+        }, null));
+    }
+
+    /**
+     * Solves the puzzle in the request body on an engine thread.
+     *
+     * @param exchange The request.
+     * @return the solution text, or "unsolvable".
+     * @throws IOException          if the body cannot be read.
+     * @throws InterruptedException if the request thread is interrupted.
+     * @throws ExecutionException   if solving fails.
+     * @throws TimeoutException     if solving takes too long.
+     */
+    private Reply solve(HttpExchange exchange)
+            throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        String puzzle = readBoard(exchange);
+        AtomicBoolean stop = new AtomicBoolean();
+        String solution = runOnEngine(() -> {
+            Sudoku model = model(PuzzleFormat.boardSizeOf(puzzle.length()), puzzle);
+            model.getSolver().setStopFlag(stop);
+            try {
+                return model.solve() ? PuzzleFormat.format(model.getCells()) : null;
+            } finally {
+                model.getSolver().setStopFlag(null);
+            }
+        }, stop);
+        return solution == null ? new Reply(422, "unsolvable") : new Reply(200, solution);
+    }
+
+    /**
+     * Checks the board in the request body against the rules. This is cheap,
+     * so it runs on the request thread with a model of its own.
+     *
+     * @param exchange The request.
+     * @return "solved", "valid" or "conflict" and the first conflicting cell.
+     * @throws IOException if the body cannot be read.
+     */
+    private Reply validate(HttpExchange exchange) throws IOException {
+        Sudoku model = new Sudoku(PuzzleFormat.parse(readBoard(exchange)));
+        int conflict = model.findConflict();
+        if (conflict >= 0) {
+            return new Reply(200, "conflict " + conflict);
+        }
+        for (byte value : model.getCells()) {
+            if (value == 0) {
+                return new Reply(200, "valid");
+            }
+        }
+        return new Reply(200, "solved");
+    }
+
+    /**
+     * Runs a search on an engine thread and waits for its result for at most
+     * the timeout. When the request stops waiting, for whatever reason, the
+     * search is stopped or taken off the queue.
+     *
+     * @param search The search.
+     * @param stop   The stop flag the search watches, or null if it cannot be
+     *               stopped.
+     * @return the result of the search.
+     * @throws InterruptedException       if the request thread is interrupted.
+     * @throws ExecutionException         if the search fails.
+     * @throws TimeoutException           if the search takes too long.
+     * @throws RejectedExecutionException if the engine queue is full.
+     */
+    private String runOnEngine(Callable<String> search, AtomicBoolean stop)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Future<String> result = engineExecutor.submit(search);
+        try {
+            return result.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            throw e;
+        } finally {
+            if (stop != null) {
+                stop.set(true);
+            }
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Returns the engine thread's model for a board size, loaded with a
+     * puzzle.
+     *
+     * @param size   The board size, or -1 if the puzzle has no valid size.
+     * @param puzzle The puzzle text, or null to keep the board as it is.
+     * @return the model.
+     * @throws IllegalArgumentException if the puzzle is not valid.
+     */
+    private Sudoku model(int size, String puzzle) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid puzzle length");
+        }
+        Sudoku[] models = this.models.get();
+        Sudoku model = models[size];
+        if (model == null) {
+            model = new Sudoku(new int[size][size]);
+            model.setSolverMode(mode);
+            model.setSolutionCache(cache);
+            models[size] = model;
+        }
+        if (puzzle != null) {
+            PuzzleFormat.parse(puzzle, model.getCells());
+        }
+        return model;
+    }
+
+    /**
+     * Reads the board text from a request body.
+     *
+     * @param exchange The request.
+     * @return the body without surrounding white space.
+     * @throws IOException              if the body cannot be read.
+     * @throws IllegalArgumentException if the body is too long to be a board.
+     */
+    private static String readBoard(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY + 1);
+        }
+        if (body.length > MAX_BODY) {
+            throw new IllegalArgumentException("Request body too long");
+        }
+        return new String(body, StandardCharsets.US_ASCII).trim();
+    }
+
+    /**
+     * Computes the answer to a request.
+     */
+    private interface Endpoint {
+        /**
+         * Computes the answer.
+         *
+         * @param exchange The request.
+         * @return the answer.
+         * @throws IOException          if the request cannot be read.
+         * @throws InterruptedException if the request thread is interrupted.
+         * @throws ExecutionException   if the engine fails.
+         * @throws TimeoutException     if the engine takes too long.
+         */
+        Reply answer(HttpExchange exchange)
+                throws IOException, InterruptedException, ExecutionException, TimeoutException;
+    }
+
+    /**
+     * The status and text of an answer.
+     */
+    private static final class Reply {
+        private final int status;
+        private final String body;
+
+        /**
+         * Creates an answer.
+         *
+         * @param status The HTTP status.
+         * @param body   The response text.
+         */
+        Reply(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class is a bounded cache of solutions keyed by the canonical form of
+ * the puzzle, as computed by PuzzleCanonicalizer. Both the puzzle and the
+ * solution are stored in canonical form, so a puzzle and all its symmetry
+ * variants share one entry. Each entry keeps its canonical puzzle, so a key
+ * collision is treated as a miss instead of returning a wrong solution.
+ *
+ * When the cache is full the least recently used entry is evicted. The cache
+ * can be shared by many models and threads; every method is synchronized.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class SolutionCache {
+    /**
+     * Default number of solutions kept, read from sudoku.cache.size.
+     */
+    public static final int DEFAULT_CAPACITY = Integer.getInteger("sudoku.cache.size", 10000);
+
+    private final int capacity;
+    private final LinkedHashMap<Long, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache with the default capacity.
+     */
+    public SolutionCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param capacity The maximum number of solutions kept.
+     */
+    public SolutionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid cache capacity: " + capacity);
+        }
+        this.capacity = capacity;
+        // Access order makes the eldest entry the least recently used one
+        entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > SolutionCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up the solution of a canonical puzzle.
+     *
+     * @param key    The key of the canonical puzzle.
+     * @param puzzle The canonical puzzle.
+     * @return the canonical solution, which must not be changed, or null if
+     *         it is not cached.
+     */
+    public synchronized byte[] get(long key, byte[] puzzle) {
+        Entry entry = entries.get(key);
+        if (entry != null && Arrays.equals(entry.puzzle, puzzle)) {
+            hits++;
+            return entry.solution;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Stores the solution of a canonical puzzle, replacing any entry with the
+     * same key. The arrays are kept, so the caller must not change them.
+     *
+     * @param key      The key of the canonical puzzle.
+     * @param puzzle   The canonical puzzle.
+     * @param solution The canonical solution.
+     */
+    public synchronized void put(long key, byte[] puzzle, byte[] solution) {
+        entries.put(key, new Entry(puzzle, solution));
+    }
+
+    /**
+     * Returns the number of solutions currently cached.
+     *
+     * @return the cache size.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the maximum number of solutions kept.
+     *
+     * @return the cache capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups that found a solution.
+     *
+     * @return the hit count.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found no solution.
+     *
+     * @return the miss count.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of lookups that found a solution.
+     *
+     * @return the hit rate from 0 to 1, or 0 before the first lookup.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the number of entries removed to make room for new ones.
+     *
+     * @return the eviction count.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * A cached canonical puzzle and its solution.
+     */
+    private static class Entry {
+        private final byte[] puzzle;
+        private final byte[] solution;
+
+        /**
+         * Creates an entry.
+         *
+         * @param puzzle   The canonical puzzle.
+         * @param solution The canonical solution.
+         */
+        Entry(byte[] puzzle, byte[] solution) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+        }
+    }
+}
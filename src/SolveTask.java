@@ -0,0 +1,61 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class solves a copy of the model's board on a background thread so
+ * that the JavaFX Application Thread stays responsive. The copy is solved by
+ * Sudoku.solve() with the model's solver mode and solution cache, so a solve
+ * from the game is timed, counted and looked up the same way as any other.
+ * Cancelling the task sets the copy's stop flag so the search ends promptly
+ * instead of running to completion.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class SolveTask extends TimedTask<int[][]> {
+    private final Sudoku copy;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+
+    /**
+     * Creates a task that solves a copy of the model's current board.
+     * 
+     * @param model The Sudoku model whose board is solved.
+     */
+    public SolveTask(Sudoku model) {
+        copy = new Sudoku(model.getBoard());
+        SolverMode mode = model.getSolverMode();
+        // BACKTRACKING cannot be stopped, and the bitmask search fills the
+        // board the same way
+        copy.setSolverMode(mode == SolverMode.BACKTRACKING ? SolverMode.BITMASK : mode);
+        copy.setSolutionCache(model.getSolutionCache());
+        copy.setStopFlag(stopFlag);
+    }
+
+    /**
+     * Solves the board copy.
+     * 
+     * @return the solved board, or null if the task was cancelled.
+     * @throws IllegalStateException if the puzzle has no solution.
+     */
+    @Override
+    protected int[][] compute() {
+        if (copy.solve()) {
+            return copy.getBoard();
+        }
+        if (stopFlag.get()) {
+            return null;
+        }
+        throw new IllegalStateException("Unsolvable puzzle.");
+    }
+
+    /**
+     * Cancels the task and stops the running search.
+     * 
+     * @param mayInterruptIfRunning Whether the worker thread may be interrupted.
+     * @return true if the task was cancelled.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        stopFlag.set(true);
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
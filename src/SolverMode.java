@@ -0,0 +1,88 @@
+/**
+ * This enum lists the solving engines that the Sudoku model can use.
+ * The mode can be changed at runtime with Sudoku.setSolverMode, and the
+ * default mode can be chosen when starting the program with
+ * -Dsudoku.solver=DANCING_LINKS (or any other mode name).
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public enum SolverMode {
+    /**
+     * The original backtracking search that rescans the row, column and
+     * subgrid for every digit it tries.
+     */
+    BACKTRACKING,
+
+    /**
+     * Backtracking search that keeps the used digits of every row, column and
+     * subgrid in bitmasks.
+     */
+    BITMASK,
+
+    /**
+     * Knuth's Algorithm X on an exact cover matrix stored as Dancing Links.
+     */
+    DANCING_LINKS,
+
+    /**
+     * Naked and hidden single propagation, branching on the cell with the
+     * fewest candidates.
+     */
+    PROPAGATION,
+
+    /**
+     * The propagation search split into fork/join tasks that run on all cores.
+     */
+    PARALLEL;
+
+    /**
+     * Returns the mode named by the sudoku.solver system property, or BITMASK
+     * if the property is not set or not a valid mode name.
+     *
+     * @return the default solver mode.
+     */
+    public static SolverMode defaultMode() {
+        return defaultMode(9);
+    }
+
+    /**
+     * Returns the mode named by the sudoku.solver system property. If it is
+     * not set, 9x9 and smaller boards use BITMASK and larger boards use
+     * PROPAGATION, because cell-order backtracking does not finish on them.
+     *
+     * @param boardSize The number of rows and columns of the board.
+     * @return the default solver mode for the board size.
+     */
+    public static SolverMode defaultMode(int boardSize) {
+        String name = System.getProperty("sudoku.solver");
+        if (name != null) {
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.out.println("Unknown solver mode: " + name);
+            }
+        }
+        return boardSize <= 9 ? BITMASK : PROPAGATION;
+    }
+
+    /**
+     * Creates a new solver for this mode.
+     *
+     * @return the solver, or null for BACKTRACKING which runs inside the model.
+     */
+    public SudokuSolver createSolver() {
+        switch (this) {
+            case BITMASK:
+                return new BitmaskSolver();
+            case DANCING_LINKS:
+                return new DancingLinksSolver();
+            case PROPAGATION:
+                return new PropagationSolver();
+            case PARALLEL:
+                return new ParallelSolver();
+            default:
+                return null;
+        }
+    }
+}
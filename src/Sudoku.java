@@ -1,52 +1,313 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * This class represents the Sudoku game. It is use to generate
  * a Sudoku puzzle, solve it, validate moves, and display the solution.
- * The Sudoku board is a 9x9 grid with subgrids of size 3x3.
+ * The Sudoku board is a 9x9 grid with subgrids of size 3x3 by default, and
+ * can also be 4x4, 16x16 or 25x25 with subgrids of size 2, 4 or 5.
+ * 
+ * The boards are stored flat, one byte per cell in row-major order, with the
+ * row, column, subgrid and peers of every cell looked up in the shared
+ * BoardGeometry tables. The 2D array methods copy to and from this form for
+ * the viewer and controller.
  * 
  * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
  * 
  * Version: 1.0
  */
 public class Sudoku {
-    private int[][] board;
+    private final byte[] cells;
     // The solution board
-    private int[][] solution;
-    private static final int BOARD_SIZE = 9;
-    private static final int SUBGRID_SIZE = 3;
+    private final byte[] solutionCells;
+    private final BoardGeometry geometry;
+    private final int boardSize;
+    private final int subgridSize;
+    private static final int DEFAULT_SUBGRID_SIZE = 3;
+    // The solvers keep candidate digits in int bitmasks, one bit per digit
+    private static final int MIN_SUBGRID_SIZE = 2;
+    private static final int MAX_SUBGRID_SIZE = 5;
     private static final int EMPTY_CELL = 0;
+    // The engine used by solve(), null when using the original backtracking
+    private SolverMode solverMode;
+    private SudokuSolver solver;
+    // Used by the generator to check that a puzzle has a unique solution
+    private PropagationSolver solutionCounter = new PropagationSolver();
+    // Grades puzzles for difficulty-targeted generation
+    private DifficultyGrader grader = new DifficultyGrader();
+    // Solutions of earlier puzzles checked by solve(), null when not caching
+    private SolutionCache solutionCache;
+    private PuzzleCanonicalizer canonicalizer;
+    // Set by another thread to stop solving or generating, null for never
+    private AtomicBoolean stopFlag;
+    // New solutions tried before generatePuzzle gives up on a difficulty on
+    // boards up to 9x9
+    private static final int MAX_GENERATE_ATTEMPTS = 200;
+    // The share of cells harder puzzles may remove, by subgrid size. Larger
+    // boards get much slower to check for uniqueness and to grade as cells
+    // are removed, so they stop earlier
+    private static final double[] MAX_REMOVAL = { 0, 0, 1.0, 1.0, 0.6, 0.52 };
+    // Work counted since the last report to EngineMetrics: nodes and
+    // backtracks of the BACKTRACKING search, and isValidMove calls
+    private long nodes;
+    private long backtracks;
+    private long validMoveCalls;
+    // Counts of the solvers already reported, since they only ever grow
+    private long reportedSolverNodes;
+    private long reportedSolverBacktracks;
+    private long reportedCounterNodes;
+    private long reportedCounterBacktracks;
 
     /**
      * Initializes the puzzle board and solution board
-     * Puzzle board is cleared and a new puzzle is generated.
+     * Puzzle board is cleared and a new 9x9 puzzle is generated.
      */
     public Sudoku() {
-        board = new int[BOARD_SIZE][BOARD_SIZE];
-        solution = new int[BOARD_SIZE][BOARD_SIZE];
+        this(DEFAULT_SUBGRID_SIZE);
+    }
+
+    /**
+     * Initializes a board whose subgrids are subgridSize x subgridSize, so the
+     * board has subgridSize * subgridSize rows and columns. Puzzle board is
+     * cleared and a new puzzle is generated.
+     * 
+     * @param subgridSize The size of a subgrid, from 2 to 5.
+     */
+    public Sudoku(int subgridSize) {
+        if (subgridSize < MIN_SUBGRID_SIZE || subgridSize > MAX_SUBGRID_SIZE) {
+            throw new IllegalArgumentException("Unsupported subgrid size: " + subgridSize);
+        }
+        this.subgridSize = subgridSize;
+        this.boardSize = subgridSize * subgridSize;
+        geometry = BoardGeometry.of(boardSize);
+        cells = new byte[geometry.getCellCount()];
+        solutionCells = new byte[geometry.getCellCount()];
+        setSolverMode(SolverMode.defaultMode(boardSize));
         clearBoard();
         generatePuzzle();
     }
 
     /**
-     * Returns the current state of the Sudoku board.
+     * Initializes the puzzle board with the given puzzle instead of generating
+     * a new one. The solution board stays empty until the puzzle is solved.
+     * 
+     * @param puzzle The 2D array of the starting numbers, 0 for empty cells.
+     */
+    public Sudoku(int[][] puzzle) {
+        this.boardSize = puzzle.length;
+        this.subgridSize = (int) Math.sqrt(boardSize);
+        if (subgridSize * subgridSize != boardSize || subgridSize < MIN_SUBGRID_SIZE
+                || subgridSize > MAX_SUBGRID_SIZE) {
+            throw new IllegalArgumentException("Unsupported board size: " + boardSize);
+        }
+        geometry = BoardGeometry.of(boardSize);
+        cells = new byte[geometry.getCellCount()];
+        solutionCells = new byte[geometry.getCellCount()];
+        setSolverMode(SolverMode.defaultMode(boardSize));
+        loadPuzzle(puzzle);
+    }
+
+    /**
+     * Returns the number of rows (and columns) of the board.
+     * 
+     * @return the board size, for example 9.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns the number of rows (and columns) of a subgrid.
+     * 
+     * @return the subgrid size, for example 3.
+     */
+    public int getSubgridSize() {
+        return subgridSize;
+    }
+
+    /**
+     * Returns the tables of the flat board representation for this board size.
+     * 
+     * @return the board geometry.
+     */
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Replaces the board with a copy of the given puzzle and clears the
+     * solution board.
+     * 
+     * @param puzzle The 2D array of the starting numbers, 0 for empty cells.
+     */
+    public void loadPuzzle(int[][] puzzle) {
+        geometry.flatten(puzzle, cells);
+        Arrays.fill(solutionCells, (byte) EMPTY_CELL);
+    }
+
+    /**
+     * Replaces the board with a copy of the given flat puzzle and clears the
+     * solution board.
+     * 
+     * @param puzzle The flat board of the starting numbers, 0 for empty cells.
+     */
+    public void loadPuzzle(byte[] puzzle) {
+        System.arraycopy(puzzle, 0, cells, 0, cells.length);
+        Arrays.fill(solutionCells, (byte) EMPTY_CELL);
+    }
+
+    /**
+     * Replaces the board and the solution board with copies of a puzzle that
+     * was generated elsewhere, for example by a PuzzlePool.
+     * 
+     * @param puzzle   The 2D array of the starting numbers, 0 for empty cells.
+     * @param solution The 2D array of the solved board.
+     */
+    public void loadPuzzle(int[][] puzzle, int[][] solution) {
+        geometry.flatten(puzzle, cells);
+        geometry.flatten(solution, solutionCells);
+    }
+
+    /**
+     * Replaces the board and the solution board with copies of a flat puzzle
+     * and its solution, for example from a saved game.
+     * 
+     * @param puzzle   The flat board of the starting numbers, 0 for empty cells.
+     * @param solution The flat solved board.
+     */
+    public void loadPuzzle(byte[] puzzle, byte[] solution) {
+        System.arraycopy(puzzle, 0, cells, 0, cells.length);
+        System.arraycopy(solution, 0, solutionCells, 0, solutionCells.length);
+    }
+
+    /**
+     * Returns the engine currently used by solve().
+     * 
+     * @return the solver mode.
+     */
+    public SolverMode getSolverMode() {
+        return solverMode;
+    }
+
+    /**
+     * Returns the engine used by solve(), for example to read the counters of
+     * a PropagationSolver.
+     * 
+     * @return the solver, or null in BACKTRACKING mode.
+     */
+    public SudokuSolver getSolver() {
+        return solver;
+    }
+
+    /**
+     * Changes the engine used by solve() and generatePuzzle().
+     * 
+     * @param mode The solver mode to use.
+     */
+    public void setSolverMode(SolverMode mode) {
+        if (solver != null) {
+            reportCounters();
+        }
+        solverMode = mode;
+        solver = mode.createSolver();
+        if (solver != null) {
+            solver.setStopFlag(stopFlag);
+        }
+        reportedSolverNodes = 0;
+        reportedSolverBacktracks = 0;
+    }
+
+    /**
+     * Sets a flag that stops solve() and generatePuzzle() as soon as it
+     * becomes true, so that work nobody waits for any more does not keep a
+     * thread busy. A stopped solve returns false; the BACKTRACKING search
+     * cannot be stopped. A stopped generation throws CancellationException
+     * and leaves the board incomplete.
+     * 
+     * @param flag The flag to check, or null to never stop early.
+     */
+    public void setStopFlag(AtomicBoolean flag) {
+        stopFlag = flag;
+        if (solver != null) {
+            solver.setStopFlag(flag);
+        }
+        solutionCounter.setStopFlag(flag);
+        grader.setStopFlag(flag);
+    }
+
+    /**
+     * Returns the solution cache checked by solve().
+     * 
+     * @return the cache, or null if solutions are not cached.
+     */
+    public SolutionCache getSolutionCache() {
+        return solutionCache;
+    }
+
+    /**
+     * Makes solve() look up the board in a cache of solutions first, and store
+     * the solutions it finds there. A cache can be shared by many models.
+     * 
+     * @param cache The cache to use, or null to stop caching.
+     */
+    public void setSolutionCache(SolutionCache cache) {
+        solutionCache = cache;
+        if (cache != null && canonicalizer == null) {
+            canonicalizer = new PuzzleCanonicalizer(geometry);
+        }
+    }
+
+    /**
+     * Returns the current state of the Sudoku board. The returned array is a
+     * copy, so changing it does not change the model.
      * 
      * @return a 2D array representing the Sudoku board.
      */
     public int[][] getBoard() {
-        return board;
+        return geometry.toBoard(cells);
+    }
+
+    /**
+     * Returns the flat board itself, one byte per cell in row-major order.
+     * Changes to the returned array change the model.
+     * 
+     * @return the flat board.
+     */
+    public byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Replaces the values on the board with a copy of the given values, for
+     * example a board solved on another thread. The solution is not changed.
+     * 
+     * @param values The 2D array of values, 0 for empty cells.
+     */
+    public void setBoard(int[][] values) {
+        geometry.flatten(values, cells);
     }
 
     /**
-     * Returns the solution of the Sudoku puzzle.
+     * Returns the solution of the Sudoku puzzle. The returned array is a copy.
      * 
      * @return a 2D array representing the solved Sudoku board.
      */
     public int[][] getSolution() {
-        return solution;
+        return geometry.toBoard(solutionCells);
+    }
+
+    /**
+     * Returns the flat solution board itself.
+     * 
+     * @return the flat solution board.
+     */
+    public byte[] getSolutionCells() {
+        return solutionCells;
     }
 
     /**
@@ -55,18 +316,23 @@ public class Sudoku {
      * @return a 2D array that is a copy of the current board.
      */
     public int[][] copyBoard() {
-        int[][] copy = new int[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            System.arraycopy(board[i], 0, copy[i], 0, BOARD_SIZE);
-        }
-        return copy;
+        return geometry.toBoard(cells);
+    }
+
+    /**
+     * Creates and returns a flat copy of the current Sudoku board.
+     * 
+     * @return a flat board that is a copy of the current board.
+     */
+    public byte[] copyCells() {
+        return cells.clone();
     }
 
     /**
      * Validates whether placing a number in a given cell (row or col) is a valid
      * move.
      * The move is valid if the number is not present in the same row, column,
-     * or 3x3 subgrid.
+     * or subgrid, which are the cell itself and its peers.
      * 
      * @param row The row index of the cell.
      * @param col The column index of the cell.
@@ -74,101 +340,404 @@ public class Sudoku {
      * @return true if the move is valid, false otherwise.
      */
     public boolean isValidMove(int row, int col, int num) {
-        for (int x = 0; x < BOARD_SIZE; x++) {
-            if (board[row][x] == num || board[x][col] == num) {
+        return isValidMove(row * boardSize + col, num);
+    }
+
+    /**
+     * Validates whether placing a number in a cell of the flat board is a
+     * valid move.
+     * 
+     * @param cell The index of the cell in the flat board.
+     * @param num  The number to place in the cell.
+     * @return true if the move is valid, false otherwise.
+     */
+    public boolean isValidMove(int cell, int num) {
+        validMoveCalls++;
+        if (cells[cell] == num) {
+            return false;
+        }
+        int[] peers = geometry.getPeers(cell);
+        for (int i = 0; i < peers.length; i++) {
+            if (cells[peers[i]] == num) {
                 return false;
             }
         }
+        return true;
+    }
+
+    /**
+     * Finds a filled cell whose number appears again in its row, column or
+     * subgrid.
+     * 
+     * @return the index of the first such cell in the flat board, or -1 if
+     *         no rule is broken.
+     */
+    public int findConflict() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            byte num = cells[cell];
+            if (num != EMPTY_CELL) {
+                cells[cell] = EMPTY_CELL;
+                boolean valid = isValidMove(cell, num);
+                cells[cell] = num;
+                if (!valid) {
+                    return cell;
+                }
+            }
+        }
+        return -1;
+    }
 
-        int startRow = row - row % SUBGRID_SIZE;
-        int startCol = col - col % SUBGRID_SIZE;
-        for (int i = 0; i < SUBGRID_SIZE; i++) {
-            for (int j = 0; j < SUBGRID_SIZE; j++) {
-                if (board[i + startRow][j + startCol] == num) {
-                    return false;
+    /**
+     * Solves the Sudoku puzzle using the current solver mode. With a solution
+     * cache, the canonical form of the board is looked up first and a cached
+     * solution is mapped back to this board instead of solving it again. A
+     * board whose numbers already repeat in a row, column or subgrid fails
+     * at once in every solver mode instead of being searched.
+     * 
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    public boolean solve() {
+        SudokuEvents.Solve event = new SudokuEvents.Solve();
+        event.begin();
+        int depth = event.isEnabled() ? SudokuEvents.countEmpty(cells) : 0;
+        long startTime = System.nanoTime();
+        boolean solved = solveCached();
+        EngineMetrics.get().recordSolve(System.nanoTime() - startTime, solved);
+        long searched = reportCounters();
+        if (event.shouldCommit()) {
+            event.boardSize = boardSize;
+            event.solver = solverMode.name();
+            event.solved = solved;
+            event.stopped = !solved && stopFlag != null && stopFlag.get();
+            event.nodes = searched;
+            event.depth = depth;
+            event.commit();
+        }
+        return solved;
+    }
+
+    /**
+     * Checks every row, column and subgrid for a repeated number in one pass
+     * over the units, which is much cheaper than findConflict().
+     * 
+     * @return true if a number appears twice in a unit.
+     */
+    private boolean hasRepeatedNumber() {
+        int[] unitCells = geometry.getUnitCells();
+        for (int unit = 0; unit < unitCells.length; unit += boardSize) {
+            int seen = 0;
+            for (int k = unit; k < unit + boardSize; k++) {
+                // Empty cells give no bit
+                int bit = (1 << cells[unitCells[k]]) >>> 1;
+                if ((seen & bit) != 0) {
+                    return true;
                 }
+                seen |= bit;
             }
         }
+        return false;
+    }
 
+    /**
+     * Solves the board, looking it up in the solution cache first if there
+     * is one.
+     * 
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    private boolean solveCached() {
+        if (solutionCache == null || !canonicalizer.canonicalize(cells)) {
+            return solveBoard();
+        }
+        long key = canonicalizer.getKey();
+        byte[] cached = solutionCache.get(key, canonicalizer.getCanonicalCells());
+        if (cached != null) {
+            canonicalizer.fromCanonical(cached, cells);
+            return true;
+        }
+        if (!solveBoard()) {
+            return false;
+        }
+        solutionCache.put(key, canonicalizer.getCanonicalCells().clone(), canonicalizer.toCanonical(cells));
         return true;
     }
 
+    /**
+     * Solves the board with the current solver mode, without the cache.
+     * 
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    private boolean solveBoard() {
+        if (solver == null) {
+            // The other solvers reject repeated numbers themselves, but
+            // backtracking would search the whole tree before giving up
+            return !hasRepeatedNumber() && backtrack();
+        }
+        return solver.solve(cells);
+    }
+
     /**
      * Solves the Sudoku puzzle using a backtracking algorithm.
      * 
      * @return true if the puzzle is solved, false if there is no solution.
      */
-    public boolean solve() {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                if (board[row][col] == EMPTY_CELL) {
-                    for (int num = 1; num <= BOARD_SIZE; num++) {
-                        if (isValidMove(row, col, num)) {
-                            board[row][col] = num;
-                            if (solve()) {
-                                return true;
-                            }
-                            board[row][col] = EMPTY_CELL;
+    private boolean backtrack() {
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == EMPTY_CELL) {
+                for (int num = 1; num <= boardSize; num++) {
+                    if (isValidMove(cell, num)) {
+                        cells[cell] = (byte) num;
+                        nodes++;
+                        if (backtrack()) {
+                            return true;
                         }
+                        cells[cell] = EMPTY_CELL;
+                        backtracks++;
                     }
-                    return false;
                 }
+                return false;
             }
         }
         return true;
     }
 
+    /**
+     * Counts the solutions of the current board, stopping as soon as limit
+     * solutions have been found. The board is not changed.
+     * 
+     * @param limit The number of solutions after which to stop counting.
+     * @return the number of solutions found, at most limit.
+     */
+    public int countSolutions(int limit) {
+        return solutionCounter.countSolutions(cells, limit);
+    }
+
     /**
      * Clears the Sudoku board, setting all cells to empty.
      */
     public void clearBoard() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = EMPTY_CELL;
-            }
-        }
+        Arrays.fill(cells, (byte) EMPTY_CELL);
     }
 
     /**
      * Generates a new Sudoku puzzle by filling the diagonal subgrids and then
      * solving it.
      * The solution is stored and some cells are then removed to create the puzzle.
+     * A cell is only removed if the puzzle still has exactly one solution.
      */
     public void generatePuzzle() {
-        Random random = new Random();
+        generatePuzzle(new Random());
+    }
+
+    /**
+     * Generates a new Sudoku puzzle using the given random number generator,
+     * so that the same seed always produces the same puzzle.
+     *
+     * @param random The random number generator for the fill and removals.
+     * @throws CancellationException if the stop flag was set.
+     */
+    public void generatePuzzle(Random random) {
+        SudokuEvents.GeneratePuzzle event = new SudokuEvents.GeneratePuzzle();
+        event.begin();
+        long startTime = System.nanoTime();
+        fillSolution(random);
+        removeCells(random, cells.length / 2, null);
+        EngineMetrics.get().recordGenerate(System.nanoTime() - startTime);
+        commitGenerated(event, null, 0, reportCounters());
+    }
+
+    /**
+     * Generates a new Sudoku puzzle of the given difficulty. Cells are removed
+     * while the puzzle keeps a unique solution and stays at or below the
+     * target grade, and a puzzle that ends up easier than the target is
+     * thrown away and started again from a new solution. Easy puzzles keep
+     * half of the cells, like generatePuzzle(); harder ones remove as many
+     * cells as they can, up to a share of the board that is smaller on
+     * 16x16 and 25x25 boards so that generation stays within seconds.
+     *
+     * If no puzzle of the target grade is found after a number of attempts,
+     * the last puzzle generated is kept; grade() tells its actual grade.
+     *
+     * @param difficulty The grade the puzzle should have.
+     */
+    public void generatePuzzle(Difficulty difficulty) {
+        generatePuzzle(new Random(), difficulty);
+    }
+
+    /**
+     * Generates a new Sudoku puzzle of the given difficulty using the given
+     * random number generator.
+     *
+     * @param random     The random number generator for the fill and removals.
+     * @param difficulty The grade the puzzle should have.
+     * @throws CancellationException if the stop flag was set.
+     */
+    public void generatePuzzle(Random random, Difficulty difficulty) {
+        SudokuEvents.GeneratePuzzle event = new SudokuEvents.GeneratePuzzle();
+        event.begin();
+        long startTime = System.nanoTime();
+        int attempts = generateFor(random, difficulty);
+        EngineMetrics.get().recordGenerate(System.nanoTime() - startTime);
+        commitGenerated(event, difficulty, attempts - 1, reportCounters());
+    }
+
+    /**
+     * Commits the flight recorder event of a generated puzzle, if it is
+     * recorded.
+     *
+     * @param event      The event begun before generating.
+     * @param difficulty The grade asked for, or null for any.
+     * @param retries    The puzzles thrown away for their grade.
+     * @param nodes      The search nodes the generation took.
+     */
+    private void commitGenerated(SudokuEvents.GeneratePuzzle event, Difficulty difficulty, int retries,
+            long nodes) {
+        if (event.shouldCommit()) {
+            event.boardSize = boardSize;
+            event.difficulty = difficulty == null ? "" : difficulty.name();
+            event.cellsRemoved = SudokuEvents.countEmpty(cells);
+            event.retries = retries;
+            event.nodes = nodes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Generates puzzles until one of the given difficulty is found or the
+     * attempts run out.
+     *
+     * @param random     The random number generator for the fill and removals.
+     * @param difficulty The grade the puzzle should have.
+     * @return the number of puzzles generated.
+     */
+    private int generateFor(Random random, Difficulty difficulty) {
+        int limit = difficulty == Difficulty.EASY ? cells.length / 2
+                : (int) (cells.length * MAX_REMOVAL[subgridSize]);
+        // Attempts shrink with the square of the cell count above 9x9
+        int attempts = MAX_GENERATE_ATTEMPTS;
+        if (cells.length > 81) {
+            attempts = Math.max(MAX_GENERATE_ATTEMPTS * 81 * 81 / (cells.length * cells.length), 1);
+        }
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            fillSolution(random);
+            removeCells(random, limit, difficulty);
+            if (grade() == difficulty) {
+                return attempt;
+            }
+        }
+        return attempts;
+    }
+
+    /**
+     * Grades the current board by the hardest logical technique it needs.
+     * 
+     * @return the difficulty of the board.
+     */
+    public Difficulty grade() {
+        return grader.grade(cells);
+    }
+
+    /**
+     * Fills the board with a new random solution and copies it to the solution
+     * board.
+     * 
+     * @param random The random number generator for the fill.
+     */
+    private void fillSolution(Random random) {
         List<Integer> numbers = new ArrayList<>();
-        for (int i = 1; i <= BOARD_SIZE; i++) {
+        for (int i = 1; i <= boardSize; i++) {
             numbers.add(i);
         }
 
-        // Fill the diagonal subgrids with random numbers
-        for (int i = 0; i < BOARD_SIZE; i += SUBGRID_SIZE) {
-            Collections.shuffle(numbers, random);
-            for (int row = 0; row < SUBGRID_SIZE; row++) {
-                for (int col = 0; col < SUBGRID_SIZE; col++) {
-                    board[i + row][i + col] = numbers.get(row * SUBGRID_SIZE + col);
+        // Fill the diagonal subgrids with random numbers and solve the board
+        // fully to generate the solution. On a 4x4 board some diagonal fills
+        // cannot be completed, so a new fill is tried until one can.
+        do {
+            checkStopped();
+            clearBoard();
+            for (int i = 0; i < boardSize; i += subgridSize) {
+                Collections.shuffle(numbers, random);
+                for (int row = 0; row < subgridSize; row++) {
+                    for (int col = 0; col < subgridSize; col++) {
+                        cells[(i + row) * boardSize + i + col] = numbers.get(row * subgridSize + col).byteValue();
+                    }
                 }
             }
-        }
-
-        // Solve the board fully to generate the solution
-        solve();
+        } while (!solveBoard());
         // Copy the fully solved board to the solution
         copyBoardToSolution();
 
         // Print solution for debugging and demoing purposes.
         // printSolution();
+    }
+
+    /**
+     * Removes cells from the solved board to create the puzzle, visiting cells
+     * in random order and putting back any removal that allows a second
+     * solution or makes the puzzle harder than the maximum grade.
+     * 
+     * @param random        The random number generator for the order.
+     * @param cellsToRemove The number of cells to remove at most.
+     * @param maxGrade      The hardest grade allowed, or null for any.
+     */
+    private void removeCells(Random random, int cellsToRemove, Difficulty maxGrade) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < cells.length; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, random);
 
-        // remove some of the cell to create the puzzle
-        int cellsToRemove = BOARD_SIZE * BOARD_SIZE / 2;
-        while (cellsToRemove > 0) {
-            int row = random.nextInt(BOARD_SIZE);
-            int col = random.nextInt(BOARD_SIZE);
-            if (board[row][col] != EMPTY_CELL) {
-                board[row][col] = EMPTY_CELL;
+        // Every puzzle is at most EXPERT, so that grade needs no checks
+        boolean checkGrade = maxGrade != null && maxGrade != Difficulty.EXPERT;
+        for (int i = 0; i < order.size() && cellsToRemove > 0; i++) {
+            checkStopped();
+            int cell = order.get(i);
+            byte removed = cells[cell];
+            cells[cell] = EMPTY_CELL;
+            if (countSolutions(2) == 1 && (!checkGrade || grade().compareTo(maxGrade) <= 0)) {
                 cellsToRemove--;
+            } else {
+                cells[cell] = removed;
             }
         }
+        // The last count may have been cut short
+        checkStopped();
+    }
+
+    /**
+     * Gives up the generation if the stop flag was set. A stopped count or
+     * grade has no meaning, so the loops check this before using them.
+     *
+     * @throws CancellationException if the stop flag was set.
+     */
+    private void checkStopped() {
+        if (stopFlag != null && stopFlag.get()) {
+            throw new CancellationException("Generation stopped");
+        }
+    }
+
+    /**
+     * Adds the work counted since the last report to the engine metrics.
+     *
+     * @return the search nodes added.
+     */
+    private long reportCounters() {
+        long solverNodes = solver == null ? 0 : solver.getNodeCount();
+        long solverBacktracks = solver == null ? 0 : solver.getBacktrackCount();
+        long counterNodes = solutionCounter.getNodeCount();
+        long counterBacktracks = solutionCounter.getBacktrackCount();
+        EngineMetrics metrics = EngineMetrics.get();
+        long searched = nodes + solverNodes - reportedSolverNodes + counterNodes - reportedCounterNodes;
+        metrics.addSearch(searched, backtracks + solverBacktracks - reportedSolverBacktracks
+                + counterBacktracks - reportedCounterBacktracks);
+        metrics.addValidMoveCalls(validMoveCalls);
+        nodes = 0;
+        backtracks = 0;
+        validMoveCalls = 0;
+        reportedSolverNodes = solverNodes;
+        reportedSolverBacktracks = solverBacktracks;
+        reportedCounterNodes = counterNodes;
+        reportedCounterBacktracks = counterBacktracks;
+        return searched;
     }
 
     /**
@@ -176,11 +745,7 @@ public class Sudoku {
      * board is fully solved to store the solution.
      */
     private void copyBoardToSolution() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                solution[i][j] = board[i][j];
-            }
-        }
+        System.arraycopy(cells, 0, solutionCells, 0, cells.length);
     }
 
     /**
@@ -189,9 +754,9 @@ public class Sudoku {
      */
     public void printSolution() {
         System.out.println("Correct Solution:");
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                System.out.print(solution[i][j] + " ");
+        for (int i = 0; i < boardSize; i++) {
+            for (int j = 0; j < boardSize; j++) {
+                System.out.print(solutionCells[i * boardSize + j] + " ");
             }
             System.out.println();
         }
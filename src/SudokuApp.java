@@ -1,15 +1,46 @@
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * This class represents the main entry point for the Sudoku application.
  * It includs the initial display of the home page and transitioning to the
- * Sudoku game when the user chooses to start a new game.
+ * Sudoku game when the user chooses to start a new game or to continue the
+ * saved one.
+ * 
+ * While the home page is showing, the first puzzle of the selected size and
+ * its board view are prepared in the background, which also warms up the
+ * solver, so starting a game only has to switch scenes. The time from launch
+ * to the home page and to the first game is logged.
  * 
  * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
  * Version: 1.0
  */
 public class SudokuApp extends Application {
+    // Prepares the first game while the home page is showing
+    private static final ExecutorService WARM_UP_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sudoku-warm-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // One pool of pre-generated puzzles per subgrid size and difficulty, kept
+    // across games and keyed like "3-MEDIUM"
+    private final Map<String, PuzzlePool> puzzlePools = new HashMap<>();
+    // Saves the game in play after every move
+    private final GameSaver gameSaver = new GameSaver();
+    private SudokuController controller;
+    // The game prepared for each subgrid size, used by the next new game
+    private final Map<Integer, CompletableFuture<PreparedGame>> preparedGames = new HashMap<>();
+    private boolean firstGameShown;
 
     /**
      * The main entry point for all JavaFX applications.
@@ -27,7 +58,18 @@ public class SudokuApp extends Application {
 
         // Add functionality to the "Start New Game" button
         homePage.getStartNewGameButton().setOnAction(e -> {
-            startSudokuGame(primaryStage);
+            startSudokuGame(primaryStage, homePage);
+        });
+
+        // Prepare a game of the chosen size while the player decides
+        homePage.getSizeChoice().setOnAction(e -> {
+            prepareGame(homePage.getSelectedSubgridSize());
+        });
+
+        // Add functionality to the "Continue" button
+        homePage.getContinueButton().setDisable(!gameSaver.hasSavedGame());
+        homePage.getContinueButton().setOnAction(e -> {
+            continueSavedGame(primaryStage, homePage);
         });
 
         // Add functionality to the "Quit" button
@@ -36,20 +78,157 @@ public class SudokuApp extends Application {
         });
 
         primaryStage.show();
+        logStartup("home page shown");
+        prepareGame(homePage.getSelectedSubgridSize());
+        // After the first game, since starting the MBean server takes a while
+        WARM_UP_EXECUTOR.execute(EngineMetrics::register);
+    }
+
+    /**
+     * Starts preparing a game of a subgrid size in the background, unless one
+     * is already prepared or being prepared.
+     * 
+     * @param subgridSize The subgrid size of the board.
+     */
+    private void prepareGame(int subgridSize) {
+        preparedGames.computeIfAbsent(subgridSize,
+                size -> CompletableFuture.supplyAsync(() -> new PreparedGame(size), WARM_UP_EXECUTOR));
+    }
+
+    /**
+     * Takes the prepared game of a subgrid size. If there is none, or
+     * preparing it failed, a new one is prepared on the warm-up thread, so
+     * generating never runs on the FX thread.
+     * 
+     * @param subgridSize The subgrid size of the board.
+     * @return the game to play, once it is ready.
+     */
+    private CompletableFuture<PreparedGame> takePreparedGame(int subgridSize) {
+        CompletableFuture<PreparedGame> future = preparedGames.remove(subgridSize);
+        if (future == null || future.isCompletedExceptionally()) {
+            future = CompletableFuture.supplyAsync(() -> new PreparedGame(subgridSize), WARM_UP_EXECUTOR);
+        }
+        return future;
+    }
+
+    /**
+     * Logs how long after the launch of the JVM a startup step was reached.
+     * 
+     * @param step The step reached.
+     */
+    private static void logStartup(String step) {
+        long sinceLaunch = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("Startup: " + step + " " + sinceLaunch + " ms after launch");
     }
 
     /**
-     * Starts a new Sudoku game by creating the model, view, and controller.
-     * It then transitions to the Sudoku game scene.
+     * Starts a new Sudoku game of the size selected on the home page. The
+     * scene is switched on the FX thread once the prepared game is ready, and
+     * the Start button is disabled until then so the game is not started
+     * twice.
      * 
      * @param primaryStage The primary stage for this application.
+     * @param homePage     The home page, shown while the game is prepared.
      */
-    private void startSudokuGame(Stage primaryStage) {
-        Sudoku model = new Sudoku();
-        SudokuViewer view = new SudokuViewer();
-        SudokuController controller = new SudokuController(model, view, primaryStage);
+    private void startSudokuGame(Stage primaryStage, HomePage homePage) {
+        long clickTime = System.nanoTime();
+        homePage.getStartNewGameButton().setDisable(true);
+        takePreparedGame(homePage.getSelectedSubgridSize()).whenCompleteAsync((game, failure) -> {
+            if (failure != null) {
+                System.err.println("Could not start a new game: " + failure);
+                homePage.getStartNewGameButton().setDisable(false);
+                return;
+            }
+            showGame(primaryStage, game.model, game.view);
+            if (!firstGameShown) {
+                firstGameShown = true;
+                logStartup(String.format("first game shown %.1f ms after the click,",
+                        (System.nanoTime() - clickTime) / 1e6));
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Continues the saved game. The model is loaded with the saved puzzle and
+     * solution, so nothing has to be generated or solved. If the saved game
+     * cannot be read, the Continue button is disabled instead.
+     * 
+     * @param primaryStage The primary stage for this application.
+     * @param homePage     The home page, shown while the game is loaded.
+     */
+    private void continueSavedGame(Stage primaryStage, HomePage homePage) {
+        GameSnapshot snapshot;
+        try {
+            snapshot = gameSaver.load();
+        } catch (IOException e) {
+            System.err.println("Could not continue the saved game: " + e.getMessage());
+            homePage.getContinueButton().setDisable(true);
+            return;
+        }
+        Sudoku model = new Sudoku(BoardGeometry.of(snapshot.getBoardSize()).toBoard(snapshot.getPuzzle()));
+        model.loadPuzzle(snapshot.getPuzzle(), snapshot.getSolution());
+        showGame(primaryStage, model, new SudokuViewer(model.getBoardSize())).resume(snapshot);
+    }
+
+    /**
+     * Creates the controller for a model and its view and transitions to the
+     * Sudoku game scene.
+     * 
+     * @param primaryStage The primary stage for this application.
+     * @param model        The model holding the puzzle to play.
+     * @param view         The view of the board, not shown yet.
+     * @return the controller of the game.
+     */
+    private SudokuController showGame(Stage primaryStage, Sudoku model, SudokuViewer view) {
+        int subgridSize = model.getSubgridSize();
+        controller = new SudokuController(model, view, primaryStage,
+                difficulty -> puzzlePools.computeIfAbsent(subgridSize + "-" + difficulty.name(),
+                        key -> new PuzzlePool(subgridSize, difficulty)),
+                gameSaver);
 
         controller.start(primaryStage); // Switch to the Sudoku game scene
+        return controller;
+    }
+
+    /**
+     * Saves the game in play with its final time, stops the puzzle pool
+     * workers and prints how often the pools had a puzzle ready, which helps
+     * tune sudoku.pool.size and sudoku.pool.refill.
+     */
+    @Override
+    public void stop() {
+        if (controller != null) {
+            controller.saveGame();
+        }
+        gameSaver.flush();
+        for (Map.Entry<String, PuzzlePool> entry : puzzlePools.entrySet()) {
+            PuzzlePool pool = entry.getValue();
+            pool.shutdown();
+            System.out.println("Puzzle pool " + entry.getKey() + ": " + pool.getHits() + " hits, "
+                    + pool.getMisses() + " misses");
+        }
+    }
+
+    /**
+     * A new game made ahead of time: a generated puzzle and the view of its
+     * board. The view is not attached to a scene yet, so it may be built off
+     * the FX thread.
+     */
+    private static class PreparedGame {
+        private final Sudoku model;
+        private final SudokuViewer view;
+
+        /**
+         * Generates a puzzle and builds its view. Grading the puzzle also
+         * warms up the techniques used for hints.
+         * 
+         * @param subgridSize The subgrid size of the board.
+         */
+        PreparedGame(int subgridSize) {
+            model = new Sudoku(subgridSize);
+            model.grade();
+            view = new SudokuViewer(model.getBoardSize());
+        }
     }
 
     /**
@@ -0,0 +1,172 @@
+/**
+ * This class is a small command line benchmark for the Sudoku solving engines.
+ * It solves fixed sets of puzzles with the solver modes, checks that all
+ * modes produce the same boards, and prints the average time per solve.
+ * It then prints generate and solve times for 9x9, 16x16 and 25x25 boards.
+ * It does not need JavaFX and can be run with "java SudokuBenchmark".
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public class SudokuBenchmark {
+    private static final int WARMUP_ROUNDS = 10;
+    private static final int MEASURED_ROUNDS = 20;
+
+    // Fixed puzzle set, one puzzle per line with '.' or '0' for empty cells
+    private static final String[] PUZZLES = {
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            "200080300060070084030500209000105408000000000402706000301007040720040060004010003",
+            "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+            "6.....8.3.4.7.................5.4.7.3..2.....1.6.......2.....5.....8.6......1....",
+            "..53.....8......2..7..1.5..4....53...1..7...6..32...8..6.5....9..4....3......97..",
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..",
+    };
+
+    // Puzzles built to defeat left-to-right cell-order search
+    private static final String[] ADVERSARIAL = {
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+    };
+
+    // Boards with very few givens, where the search tree is huge
+    private static final String[] NEAR_EMPTY = {
+            ".................................................................................",
+            "1...............................................................................9",
+            "..3.........5.........................8.........................7.........1......",
+    };
+
+    /**
+     * Runs the benchmark and prints the results to the console.
+     *
+     * @param args The command line arguments (unused).
+     */
+    public static void main(String[] args) {
+        run("standard", PUZZLES, SolverMode.values());
+        // The original search takes seconds on these, so it is left out
+        run("adversarial", ADVERSARIAL, new SolverMode[] { SolverMode.BITMASK, SolverMode.DANCING_LINKS,
+                SolverMode.PROPAGATION, SolverMode.PARALLEL });
+        run("near-empty", NEAR_EMPTY, new SolverMode[] { SolverMode.PROPAGATION, SolverMode.PARALLEL });
+
+        for (int subgridSize = 3; subgridSize <= 5; subgridSize++) {
+            runSize(subgridSize, new SolverMode[] { SolverMode.DANCING_LINKS, SolverMode.PROPAGATION,
+                    SolverMode.PARALLEL });
+        }
+    }
+
+    /**
+     * Times puzzle generation for one board size, then times solving the
+     * generated puzzles with each of the given modes.
+     *
+     * @param subgridSize The subgrid size of the board.
+     * @param modes       The solver modes to time.
+     */
+    private static void runSize(int subgridSize, SolverMode[] modes) {
+        int boardSize = subgridSize * subgridSize;
+        // Fewer rounds on larger boards, which take much longer
+        int count = subgridSize == 5 ? 5 : 50;
+
+        new Sudoku(subgridSize);
+        int[][][] puzzles = new int[count][][];
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            puzzles[i] = new Sudoku(subgridSize).copyBoard();
+        }
+        double generateMs = (System.nanoTime() - start) / 1e6 / count;
+        System.out.printf("Board size: %dx%d (%d puzzles)%n", boardSize, boardSize, count);
+        System.out.printf("%-14s %10.3f ms/puzzle%n", "generate", generateMs);
+
+        for (SolverMode mode : modes) {
+            solveAll(puzzles, mode);
+            start = System.nanoTime();
+            solveAll(puzzles, mode);
+            double msPerSolve = (System.nanoTime() - start) / 1e6 / count;
+            System.out.printf("%-14s %10.3f ms/solve%n", mode, msPerSolve);
+        }
+    }
+
+    /**
+     * Times every given mode on a puzzle set. The first mode is the baseline:
+     * the other modes must fill the boards exactly like it, and their speedup
+     * is reported relative to it.
+     *
+     * @param name    The name of the puzzle set.
+     * @param lines   The puzzles of the set.
+     * @param modes   The solver modes to time.
+     */
+    private static void run(String name, String[] lines, SolverMode[] modes) {
+        int[][][] puzzles = new int[lines.length][][];
+        for (int i = 0; i < lines.length; i++) {
+            puzzles[i] = PuzzleFormat.parse(lines[i]);
+        }
+
+        System.out.println("Puzzle set: " + name + " (" + puzzles.length + " puzzles)");
+        int[][][] expected = solveAll(puzzles, modes[0]);
+        double baseline = 0;
+        for (SolverMode mode : modes) {
+            int[][][] solved = solveAll(puzzles, mode);
+            for (int i = 0; i < puzzles.length; i++) {
+                if (!java.util.Arrays.deepEquals(expected[i], solved[i])) {
+                    System.out.println(mode + " produced a different board for puzzle " + i);
+                }
+            }
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                solveAll(puzzles, mode);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                solveAll(puzzles, mode);
+            }
+            double msPerSolve = (System.nanoTime() - start) / 1e6 / (MEASURED_ROUNDS * puzzles.length);
+            if (mode == modes[0]) {
+                baseline = msPerSolve;
+            }
+            System.out.printf("%-14s %10.3f ms/solve %8.1fx%n", mode, msPerSolve, baseline / msPerSolve);
+        }
+        printPropagationCounters(puzzles);
+    }
+
+    /**
+     * Solves the puzzle set once with the propagation solver and prints how
+     * much of the work was done by propagation rather than by branching.
+     *
+     * @param puzzles The puzzles to solve.
+     */
+    private static void printPropagationCounters(int[][][] puzzles) {
+        Sudoku sudoku = new Sudoku(puzzles[0]);
+        sudoku.setSolverMode(SolverMode.PROPAGATION);
+        PropagationSolver solver = (PropagationSolver) sudoku.getSolver();
+        int withoutBranching = 0;
+        for (int[][] puzzle : puzzles) {
+            long branches = solver.getBranches();
+            sudoku.loadPuzzle(puzzle);
+            sudoku.solve();
+            if (solver.getBranches() == branches) {
+                withoutBranching++;
+            }
+        }
+        System.out.printf("PROPAGATION counters: %d propagations, %d branches, %d backtracks, "
+                + "%d of %d puzzles solved without branching%n", solver.getPropagations(), solver.getBranches(),
+                solver.getBacktracks(), withoutBranching, puzzles.length);
+    }
+
+    /**
+     * Solves a copy of every puzzle with the given solver mode.
+     *
+     * @param puzzles The puzzles to solve.
+     * @param mode    The solver mode to use.
+     * @return the solved boards.
+     */
+    private static int[][][] solveAll(int[][][] puzzles, SolverMode mode) {
+        int[][][] solved = new int[puzzles.length][][];
+        Sudoku sudoku = new Sudoku(puzzles[0]);
+        sudoku.setSolverMode(mode);
+        for (int i = 0; i < puzzles.length; i++) {
+            sudoku.loadPuzzle(puzzles[i]);
+            sudoku.solve();
+            solved[i] = sudoku.copyBoard();
+        }
+        return solved;
+    }
+}
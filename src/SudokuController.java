@@ -1,11 +1,23 @@
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.ButtonType;
-import javafx.scene.control.TextField;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * This class represents the controller in the MVC pattern for the Sudoku
@@ -18,25 +30,100 @@ import java.util.Optional;
  * Version: 1.0
  */
 public class SudokuController {
+	// Solving and generating run on this thread instead of the FX thread
+	private static final ExecutorService ENGINE_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sudoku-engine");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// Hints are found on their own thread, so they never wait for a solve
+	private static final ExecutorService HINT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "sudoku-hint");
+		thread.setDaemon(true);
+		return thread;
+	});
+	// Background tasks are cancelled after this many seconds (sudoku.task.timeout)
+	private static final Duration TASK_TIMEOUT = Duration.seconds(Integer.getInteger("sudoku.task.timeout", 10));
+
 	private Sudoku model;
 	private SudokuViewer view;
 	private Stage primaryStage;
+	// Returns the pool of pre-generated puzzles for a difficulty
+	private Function<Difficulty, PuzzlePool> puzzlePools;
+	private Task<?> runningTask;
+	// The hint for the current board, found in the background after every
+	// change, and whether the player is waiting for it
+	private HintTask hintTask;
+	private Hint readyHint;
+	private boolean hintRequested;
+	// Only used on the hint thread, one task at a time
+	private final DifficultyGrader hintGrader = new DifficultyGrader();
+	// Saves the game after every change, or null to not save it
+	private GameSaver gameSaver;
+	// Set once the puzzle is solved or won, so there is nothing to continue
+	private boolean gameOver;
 
 	/**
 	 * Constructs a SudokuController with the specified model, view, and primary
-	 * stage.
+	 * stage. New puzzles come from pools created for the model's board size
+	 * when a difficulty is first chosen.
 	 * 
 	 * @param model        The Sudoku model representing the game logic.
 	 * @param view         The Sudoku view that displays the game interface.
 	 * @param primaryStage The primary stage for this application.
 	 */
 	public SudokuController(Sudoku model, SudokuViewer view, Stage primaryStage) {
+		this(model, view, primaryStage, newPoolMap(model.getSubgridSize()));
+	}
+
+	/**
+	 * Constructs a SudokuController with the specified model, view, primary
+	 * stage, and the pools that new puzzles are taken from.
+	 * 
+	 * @param model        The Sudoku model representing the game logic.
+	 * @param view         The Sudoku view that displays the game interface.
+	 * @param primaryStage The primary stage for this application.
+	 * @param puzzlePools  Returns the pool of pre-generated puzzles of a
+	 *                     difficulty for the board size.
+	 */
+	public SudokuController(Sudoku model, SudokuViewer view, Stage primaryStage,
+			Function<Difficulty, PuzzlePool> puzzlePools) {
+		this(model, view, primaryStage, puzzlePools, null);
+	}
+
+	/**
+	 * Constructs a SudokuController that also saves the game in the background
+	 * every time the board changes, so that it can be continued later.
+	 * 
+	 * @param model        The Sudoku model representing the game logic.
+	 * @param view         The Sudoku view that displays the game interface.
+	 * @param primaryStage The primary stage for this application.
+	 * @param puzzlePools  Returns the pool of pre-generated puzzles of a
+	 *                     difficulty for the board size.
+	 * @param gameSaver    Saves the game, or null to not save it.
+	 */
+	public SudokuController(Sudoku model, SudokuViewer view, Stage primaryStage,
+			Function<Difficulty, PuzzlePool> puzzlePools, GameSaver gameSaver) {
 		this.model = model;
 		this.view = view;
 		this.primaryStage = primaryStage;
+		this.puzzlePools = puzzlePools;
+		this.gameSaver = gameSaver;
 		initialize();
 	}
 
+	/**
+	 * Creates a lookup that makes one pool per difficulty the first time it
+	 * is asked for.
+	 * 
+	 * @param subgridSize The subgrid size of the puzzles.
+	 * @return the pool lookup.
+	 */
+	private static Function<Difficulty, PuzzlePool> newPoolMap(int subgridSize) {
+		Map<Difficulty, PuzzlePool> pools = new EnumMap<>(Difficulty.class);
+		return difficulty -> pools.computeIfAbsent(difficulty, d -> new PuzzlePool(subgridSize, d));
+	}
+
 	/**
 	 * Initializes the controller by setting up event handlers for the buttons in
 	 * the view.
@@ -50,11 +137,21 @@ public class SudokuController {
 		view.getSolveButton().setOnAction(e -> showSolveConfirmation());
 		view.getClearButton().setOnAction(e -> view.clearUserInputs(model.getBoard()));
 		view.getGenerateButton().setOnAction(e -> generateNewPuzzle());
+		view.getCancelButton().setOnAction(e -> cancelRunningTask());
+		view.getUndoButton().setOnAction(e -> view.undo());
+		view.getRedoButton().setOnAction(e -> view.redo());
+		view.getHintButton().setOnAction(e -> showHint());
+		view.setOnBoardChanged(this::boardChanged);
+		boardChanged();
 		view.getCheckButton().setOnAction(e -> {
+			SudokuEvents.UserAction event = new SudokuEvents.UserAction();
+			event.begin();
 			if (isBoardEmpty()) {
 				showNoInputAlert();
+				commitAction(event, "Check", "no input");
 			} else {
-				view.highlightCells(model.getSolution());
+				checkCells();
+				commitAction(event, "Check", view.isGameWon() ? "won" : "not won");
 				if (view.isGameWon()) {
 					showWinningPage();
 				}
@@ -68,12 +165,67 @@ public class SudokuController {
 	 * @param primaryStage The primary stage for this application.
 	 */
 	public void start(Stage primaryStage) {
-		Scene scene = new Scene(view.getRoot(), 600, 700);
+		// Larger boards are sized to fit their content
+		Scene scene = view.getBoardSize() <= 9 ? new Scene(view.getRoot(), 600, 700) : new Scene(view.getRoot());
 		primaryStage.setScene(scene);
 		primaryStage.setTitle("Sudoku :: Team Snickerdoodle");
 		primaryStage.show();
 	}
 
+	/**
+	 * Continues a saved game: the player's entries are put back on the board
+	 * and the timer goes on from the saved time. The model must already hold
+	 * the saved puzzle and solution.
+	 * 
+	 * @param snapshot The saved game.
+	 */
+	public void resume(GameSnapshot snapshot) {
+		view.startTimer(snapshot.getSecondsElapsed());
+		view.restoreEntries(snapshot.getEntries());
+		view.setFeedback("Saved game continued.");
+	}
+
+	/**
+	 * Saves the game as it is now in the background, unless it is over or
+	 * saving is off.
+	 */
+	public void saveGame() {
+		saveGame(view.copyEntries());
+	}
+
+	/**
+	 * Saves the game with the given entries in the background, unless it is
+	 * over or saving is off.
+	 * 
+	 * @param entries The flat board as the player sees it.
+	 */
+	private void saveGame(byte[] entries) {
+		if (gameSaver != null && !gameOver) {
+			gameSaver.save(new GameSnapshot(view.getBoardSize(), model.copyCells(),
+					model.getSolutionCells().clone(), entries, view.getSecondsElapsed()));
+		}
+	}
+
+	/**
+	 * Ends the game, so it is no longer saved and the saved copy is deleted.
+	 */
+	private void endGame() {
+		gameOver = true;
+		if (gameSaver != null) {
+			gameSaver.delete();
+		}
+	}
+
+	/**
+	 * Called whenever the numbers on the board change. The entries are read
+	 * once and used both to find the next hint and to save the game.
+	 */
+	private void boardChanged() {
+		byte[] entries = view.copyEntries();
+		prepareHint(entries);
+		saveGame(entries);
+	}
+
 	/**
 	 * Returns the current scene being displayed.
 	 * 
@@ -84,20 +236,154 @@ public class SudokuController {
 	}
 
 	/**
-	 * Generates a new Sudoku puzzle, updates the view with the new puzzle,
-	 * and restarts the game timer.
+	 * Loads a new Sudoku puzzle of the selected difficulty from its puzzle pool
+	 * on a background thread, then updates the view with the new puzzle, shows
+	 * its grade and restarts the game timer.
 	 */
 	public void generateNewPuzzle() {
-		model.clearBoard();
-		model.generatePuzzle();
-		view.updateBoard(model.getBoard());
-		view.startTimer(); // Restart the timer for the new puzzle
+		PuzzlePool puzzlePool = puzzlePools.apply(view.getSelectedDifficulty());
+		GenerateTask task = new GenerateTask(puzzlePool);
+		runInBackground(task, "Generating", puzzle -> {
+			SudokuEvents.UserAction event = new SudokuEvents.UserAction();
+			event.begin();
+			view.getPerfRecorder().record(PerfRecorder.Metric.GENERATE, task.getElapsedNanos(),
+					task.getAllocatedBytes());
+			model.loadPuzzle(puzzle.getBoard(), puzzle.getSolution());
+			gameOver = false;
+			view.updateBoard(model.getBoard());
+			view.setFeedback(puzzle.getDifficulty() == null ? "" : puzzle.getDifficulty() + " puzzle");
+			view.startTimer(); // Restart the timer for the new puzzle
+			commitAction(event, "Show new puzzle", "shown");
+		});
+	}
+
+	/**
+	 * Starts finding a hint for the player's current entries in the background,
+	 * cancelling the search for the previous board if it is still running.
+	 * 
+	 * @param entries The flat board as the player sees it, which is kept.
+	 */
+	private void prepareHint(byte[] entries) {
+		if (hintTask != null) {
+			hintTask.cancel();
+		}
+		readyHint = null;
+		hintRequested = false;
+		HintTask task = new HintTask(entries, model.getSolutionCells().clone(), hintGrader);
+		hintTask = task;
+		task.setOnSucceeded(e -> {
+			if (hintTask == task) {
+				readyHint = task.getValue();
+				if (hintRequested) {
+					displayHint();
+				}
+			}
+		});
+		task.setOnFailed(e -> {
+			// Without a hint, a player waiting for one is told so
+			if (hintTask == task && hintRequested) {
+				displayHint();
+			}
+		});
+		HINT_EXECUTOR.execute(task);
+	}
+
+	/**
+	 * Shows the hint for the current board. It is normally ready already; if
+	 * it is still being found, it is shown as soon as it is. The task's state
+	 * is used rather than isDone(), which becomes true on the worker thread
+	 * before the result has reached the FX thread.
+	 */
+	private void showHint() {
+		hintRequested = true;
+		if (readyHint != null || hintTask == null || hintTask.getState() == Worker.State.SUCCEEDED
+				|| hintTask.getState() == Worker.State.FAILED) {
+			displayHint();
+		} else {
+			view.setFeedback("Finding a hint...");
+		}
+	}
+
+	/**
+	 * Highlights the cell of the ready hint and describes it.
+	 */
+	private void displayHint() {
+		hintRequested = false;
+		if (readyHint == null) {
+			view.setFeedback("No hint available.");
+			return;
+		}
+		view.showHint(readyHint.getCell());
+		view.setFeedback(readyHint.describe(view.getBoardSize()));
+	}
+
+	/**
+	 * Runs a task on the engine thread. While it runs, the function buttons are
+	 * disabled and the feedback label shows the elapsed time. The task is
+	 * cancelled if it takes longer than the timeout. When it succeeds its
+	 * result is passed to onSuccess on the FX thread in one go.
+	 * 
+	 * @param task      The task to run.
+	 * @param action    The name of the action shown in the feedback label.
+	 * @param onSuccess Called on the FX thread with the task's result.
+	 */
+	private <T> void runInBackground(Task<T> task, String action, Consumer<T> onSuccess) {
+		cancelRunningTask();
+		runningTask = task;
+		view.setBusy(true);
+		view.setFeedback(action + "...");
+
+		long startTime = System.nanoTime();
+		Timeline progress = new Timeline(new KeyFrame(Duration.millis(100), e -> view
+				.setFeedback(String.format("%s... %.1f s", action, (System.nanoTime() - startTime) / 1e9))));
+		progress.setCycleCount(Animation.INDEFINITE);
+		progress.play();
+
+		boolean[] timedOut = { false };
+		PauseTransition timeout = new PauseTransition(TASK_TIMEOUT);
+		timeout.setOnFinished(e -> {
+			timedOut[0] = true;
+			task.cancel();
+		});
+		timeout.play();
+
+		Runnable finish = () -> {
+			progress.stop();
+			timeout.stop();
+			if (runningTask == task) {
+				runningTask = null;
+				view.setBusy(false);
+			}
+		};
+		task.setOnSucceeded(e -> {
+			finish.run();
+			onSuccess.accept(task.getValue());
+		});
+		task.setOnFailed(e -> {
+			finish.run();
+			view.setFeedback(task.getException().getMessage());
+		});
+		task.setOnCancelled(e -> {
+			finish.run();
+			view.setFeedback(timedOut[0] ? action + " timed out after " + (int) TASK_TIMEOUT.toSeconds() + " s."
+					: action + " cancelled.");
+		});
+		ENGINE_EXECUTOR.execute(task);
+	}
+
+	/**
+	 * Cancels the running solve or generate task, if there is one.
+	 */
+	private void cancelRunningTask() {
+		if (runningTask != null) {
+			runningTask.cancel();
+		}
 	}
 
 	/**
 	 * Displays a confirmation dialog when the user attempts to solve the puzzle.
-	 * If the user confirms, the puzzle is solved, and the view is updated with the
-	 * solution.
+	 * If the user confirms, the puzzle is solved on a background thread, and the
+	 * view is updated with the solution.
 	 * The game timer is stopped once the puzzle is solved.
 	 */
 	private void showSolveConfirmation() {
@@ -106,17 +392,58 @@ public class SudokuController {
 		alert.setHeaderText("Are you sure you want to solve the puzzle?");
 		alert.setContentText("Clicking 'Solve' will reveal the solution \n and you won't be able to continue.");
 
+		SudokuEvents.UserAction confirmation = new SudokuEvents.UserAction();
+		confirmation.begin();
 		Optional<ButtonType> result = alert.showAndWait();
-		if (result.isPresent() && result.get() == ButtonType.OK) {
-			if (model.solve()) {
+		boolean confirmed = result.isPresent() && result.get() == ButtonType.OK;
+		commitAction(confirmation, "Solve confirmation", confirmed ? "confirmed" : "cancelled");
+		if (confirmed) {
+			SolveTask task = new SolveTask(model);
+			runInBackground(task, "Solving", solved -> {
+				SudokuEvents.UserAction event = new SudokuEvents.UserAction();
+				event.begin();
+				view.getPerfRecorder().record(PerfRecorder.Metric.SOLVE, task.getElapsedNanos(),
+						task.getAllocatedBytes());
+				endGame(); // A revealed puzzle cannot be continued
+				model.setBoard(solved);
 				view.updateBoard(model.getBoard());
+				view.setFeedback("");
 				view.stopTimer(); // Stop the timer when the puzzle is solved
-			} else {
-				System.out.println("Unsolvable puzzle.");
-			}
+				commitAction(event, "Show solution", "shown");
+			});
+		}
+	}
+
+	/**
+	 * Commits the flight recorder event of a step of a user action, if it is
+	 * recorded. The event must have been begun before the step.
+	 * 
+	 * @param event   The event.
+	 * @param action  The name of the action.
+	 * @param outcome How the step ended.
+	 */
+	private void commitAction(SudokuEvents.UserAction event, String action, String outcome) {
+		if (event.shouldCommit()) {
+			event.action = action;
+			event.outcome = outcome;
+			event.boardSize = view.getBoardSize();
+			event.commit();
 		}
 	}
 
+	/**
+	 * Highlights the correct and wrong entries and records how long it took
+	 * for the performance overlay.
+	 */
+	private void checkCells() {
+		long startBytes = PerfRecorder.threadAllocatedBytes();
+		long startTime = System.nanoTime();
+		view.highlightCells(model.getSolution());
+		long elapsed = System.nanoTime() - startTime;
+		view.getPerfRecorder().record(PerfRecorder.Metric.CHECK, elapsed,
+				startBytes < 0 ? -1 : PerfRecorder.threadAllocatedBytes() - startBytes);
+	}
+
 	/**
 	 * Displays a warning alert if the user tries to check the solution without
 	 * entering any numbers in the puzzle.
@@ -135,12 +462,9 @@ public class SudokuController {
 	 * @return true if the board is empty, false otherwise.
 	 */
 	private boolean isBoardEmpty() {
-		for (int row = 0; row < 9; row++) {
-			for (int col = 0; col < 9; col++) {
-				TextField cell = view.getCells()[row][col];
-				if (!cell.getText().trim().isEmpty()) {
-					return false;
-				}
+		for (byte value : view.copyEntries()) {
+			if (value != 0) {
+				return false;
 			}
 		}
 		return true;
@@ -152,6 +476,7 @@ public class SudokuController {
 	 */
 	private void showWinningPage() {
 		view.stopTimer(); // Stop the timer since the user has won
+		endGame();
 		WinningPage winningPage = new WinningPage(this); // Pass the controller to the WinningPage
 		winningPage.show(); // Show the winning window
 	}
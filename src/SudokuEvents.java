@@ -0,0 +1,160 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class holds the Java Flight Recorder events of the Sudoku engine and
+ * user interface, so that a recording of a stutter shows what the engine and
+ * the FX thread were doing next to the GC pauses and thread samples JFR
+ * records anyway. Every event has a start time, a duration and the thread it
+ * ran on.
+ *
+ * An event is created, begun before the work and committed after it only if
+ * shouldCommit() is true, and its fields are filled in inside that check.
+ * While no recording has the event enabled, shouldCommit() is false, the
+ * fields are never computed and the JIT removes the event object, so the
+ * events cost nothing when recording is off.
+ *
+ * scripts/sudoku.jfc enables all of them together with the GC, safepoint,
+ * lock and sampling events that help explain a stall:
+ * java -XX:StartFlightRecording:settings=../scripts/sudoku.jfc,filename=sudoku.jfr SudokuApp
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public final class SudokuEvents {
+
+    private SudokuEvents() {
+    }
+
+    /**
+     * A puzzle generated by Sudoku.generatePuzzle.
+     */
+    @Name("sudoku.GeneratePuzzle")
+    @Label("Generate Puzzle")
+    @Category({ "Sudoku", "Engine" })
+    @Description("A new puzzle generated by the Sudoku model")
+    public static final class GeneratePuzzle extends Event {
+        @Label("Board Size")
+        int boardSize;
+
+        @Label("Difficulty")
+        @Description("The grade asked for, or empty if any grade is fine")
+        String difficulty;
+
+        @Label("Cells Removed")
+        int cellsRemoved;
+
+        @Label("Retries")
+        @Description("Puzzles thrown away because they had the wrong grade")
+        int retries;
+
+        @Label("Search Nodes")
+        @Description("Digits tried by the fill and the uniqueness checks")
+        long nodes;
+    }
+
+    /**
+     * A board solved by Sudoku.solve, which is also how a SolveTask solves,
+     * so this is the only place the event is filled in.
+     */
+    @Name("sudoku.Solve")
+    @Label("Solve")
+    @Category({ "Sudoku", "Engine" })
+    @Description("A board solved by the Sudoku engine")
+    public static final class Solve extends Event {
+        @Label("Board Size")
+        int boardSize;
+
+        @Label("Solver")
+        String solver;
+
+        @Label("Solved")
+        boolean solved;
+
+        @Label("Stopped")
+        @Description("Whether the search was given up through the stop flag, for example on a timeout")
+        boolean stopped;
+
+        @Label("Search Nodes")
+        @Description("Digits tried by the search, 0 for cached solutions and solvers that do not count")
+        long nodes;
+
+        @Label("Depth")
+        @Description("Empty cells at the start, which is the depth of the search tree")
+        int depth;
+    }
+
+    /**
+     * A new board shown by SudokuViewer.updateBoard.
+     */
+    @Name("sudoku.UpdateBoard")
+    @Label("Update Board")
+    @Category({ "Sudoku", "User Interface" })
+    @Description("A new board put on the canvas by the viewer")
+    public static final class UpdateBoard extends Event {
+        @Label("Board Size")
+        int boardSize;
+
+        @Label("Filled Cells")
+        int filledCells;
+    }
+
+    /**
+     * A check of the player's entries by SudokuViewer.highlightCells.
+     */
+    @Name("sudoku.HighlightCells")
+    @Label("Highlight Cells")
+    @Category({ "Sudoku", "User Interface" })
+    @Description("The player's entries coloured as correct or wrong")
+    public static final class HighlightCells extends Event {
+        @Label("Board Size")
+        int boardSize;
+
+        @Label("Correct Cells")
+        int correctCells;
+
+        @Label("Wrong Cells")
+        int wrongCells;
+
+        @Label("Empty Cells")
+        int emptyCells;
+    }
+
+    /**
+     * A step of a user action handled by the controller, such as the Solve
+     * confirmation dialog or showing the solution it asked for.
+     */
+    @Name("sudoku.UserAction")
+    @Label("User Action")
+    @Category({ "Sudoku", "User Interface" })
+    @Description("A step of a user action handled by the controller on the FX thread")
+    public static final class UserAction extends Event {
+        @Label("Action")
+        String action;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Label("Board Size")
+        int boardSize;
+    }
+
+    /**
+     * Counts the empty cells of a flat board, for the event fields.
+     *
+     * @param cells The flat board, 0 for empty cells.
+     * @return the number of empty cells.
+     */
+    static int countEmpty(byte[] cells) {
+        int empty = 0;
+        for (byte value : cells) {
+            if (value == 0) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+}
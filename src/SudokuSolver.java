@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This interface represents a solving engine for the Sudoku model. A solver
+ * fills in every empty cell of the board it is given so that no digit repeats
+ * in a row, column or subgrid. A solve can be stopped early from another
+ * thread through a shared stop flag.
+ *
+ * Solvers work on the flat board representation described by BoardGeometry.
+ * 2D boards are accepted too and are converted on the way in and out.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public interface SudokuSolver {
+
+    /**
+     * Solves the given flat board in place. Empty cells are represented by 0
+     * and the board is left unchanged if there is no solution.
+     *
+     * @param cells The flat board, one byte per cell in row-major order.
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    boolean solve(byte[] cells);
+
+    /**
+     * Solves the given 2D board in place by solving a flat copy of it.
+     *
+     * @param board The 2D array representing the Sudoku board.
+     * @return true if the puzzle is solved, false if there is no solution.
+     */
+    default boolean solve(int[][] board) {
+        BoardGeometry geometry = BoardGeometry.of(board.length);
+        byte[] cells = geometry.toCells(board);
+        if (!solve(cells)) {
+            return false;
+        }
+        geometry.unflatten(cells, board);
+        return true;
+    }
+
+    /**
+     * Sets a flag that stops the search as soon as it becomes true. A stopped
+     * solve returns false and leaves the board unchanged.
+     *
+     * @param flag The shared stop flag, or null to never stop.
+     */
+    void setStopFlag(AtomicBoolean flag);
+
+    /**
+     * Returns the number of search nodes this solver has visited so far,
+     * where a node is one digit tried in a cell. Solvers that do not count
+     * return 0.
+     *
+     * @return the node count since the solver was created.
+     */
+    default long getNodeCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of tried digits this solver has had to take back so
+     * far. Solvers that do not count return 0.
+     *
+     * @return the backtrack count since the solver was created.
+     */
+    default long getBacktrackCount() {
+        return 0;
+    }
+}
@@ -1,12 +1,17 @@
-import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.TilePane;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 import javafx.geometry.Insets;
+import javafx.geometry.Orientation;
+import javafx.animation.AnimationTimer;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.control.Button;
-import javafx.scene.control.TextField;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 
 /**
@@ -14,7 +19,9 @@ import javafx.scene.control.Label;
  * It manages the display of the Sudoku board, user interaction elements, and
  * updates to the visual state of the game. It also handles the game timer and
  * provides methods to interact with the board, such as updating the board,
- * clearing inputs, and highlighting cells.
+ * clearing inputs, and highlighting cells. The board itself is drawn by a
+ * BoardCanvas. Pressing F3 toggles an overlay with recent timings of the
+ * game's operations and of the JavaFX pulses.
  * 
  * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
  * Version: 1.0
@@ -22,10 +29,8 @@ import javafx.scene.control.Label;
 public class SudokuViewer {
 
     private VBox root;
-    private GridPane gridPane_board;
+    private BoardCanvas board;
     private HBox buttonPanel;
-    private TextField[][] cells;
-    private TextField selectedCell;
     private Label timerLabel;
     private Timeline timer;
     private int secondsElapsed;
@@ -35,59 +40,100 @@ public class SudokuViewer {
     private Button clearButton;
     private Button generateButton;
     private Button checkButton;
+    private Button cancelButton;
+    private Button undoButton;
+    private Button redoButton;
+    private Button hintButton;
+    private ChoiceBox<Difficulty> difficultyChoice;
     private Label feedbackLabel;
 
     // Number Buttons
-    private Button[] numberButtons = new Button[9];
-    private int[] numberCount = new int[9]; // Tracks numbers for button grey-out
+    private Button[] numberButtons;
+    private int[] numberCount; // Tracks numbers for button grey-out
+
+    // Player moves for undo and redo
+    private final MoveHistory history = new MoveHistory();
+
+    // Called whenever the numbers on the board change
+    private Runnable onBoardChanged;
+    // The cell highlighted by the last hint, or -1
+    private int hintCell = -1;
+
+    private int boardSize;
 
     private boolean isGameWon;
 
+    // Performance overlay, toggled with F3. Nothing is recorded while it is
+    // hidden, and the pulse listeners are only installed while it is shown.
+    private final PerfRecorder perfRecorder = new PerfRecorder();
+    private Label perfLabel;
+    private AnimationTimer perfTimer;
+    private Scene perfScene;
+    private long pulseStart;
+    private final Runnable prePulse = () -> pulseStart = System.nanoTime();
+    private final Runnable postPulse = () -> perfRecorder.record(PerfRecorder.Metric.PULSE,
+            System.nanoTime() - pulseStart);
+
     /**
-     * Constructs a SudokuViewer and initializes the UI components.
+     * Constructs a SudokuViewer for a 9x9 board and initializes the UI
+     * components.
      */
     public SudokuViewer() {
+        this(9);
+    }
+
+    /**
+     * Constructs a SudokuViewer for a board with the given number of rows and
+     * columns and initializes the UI components.
+     * 
+     * @param boardSize The number of rows and columns, for example 9 or 16.
+     */
+    public SudokuViewer(int boardSize) {
         // UI Setup
-        gridPane_board = new GridPane();
-        cells = new TextField[9][9];
+        this.boardSize = boardSize;
+        numberButtons = new Button[boardSize];
+        numberCount = new int[boardSize];
         isGameWon = false;
 
-        // Sets up board
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                cells[row][col] = new TextField();
-                cells[row][col].setPrefSize(50, 50);
-                cells[row][col].setStyle("-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: white;");
-
-                gridPane_board.add(cells[row][col], col, row);
-
-                // Selects cell with mouse click
-                final int r = row;
-                final int c = col;
-
-                cells[row][col].setOnMouseClicked(event -> {
-                    selectedCell = cells[r][c];
-                });
-
-                // Updates buttons when number is manually removed
-                cells[row][col].textProperty().addListener((observable, oldValue, newValue) -> {
-                    updateButtonState();
-                });
-            }
-        }
+        // Cells shrink on larger boards so that 16x16 and 25x25 still fit
+        int cellSize = Math.max(30, 450 / boardSize);
+        board = new BoardCanvas(boardSize, cellSize);
+
+        // Updates the counts of the old and new number when the player
+        // changes a cell, and records the change. An appended digit is
+        // linked to the digit before it, so 1 then 6 is undone as one step
+        board.setCellListener((cell, oldNumber, newNumber, appended) -> {
+            changeNumberCount(oldNumber, -1);
+            changeNumberCount(newNumber, 1);
+            history.record(cell, oldNumber, newNumber, appended);
+            updateHistoryButtons();
+            boardChanged();
+        });
 
         // Creates function buttons
         solveButton = new Button("Solve");
         clearButton = new Button("Clear");
         generateButton = new Button("Generate");
         checkButton = new Button("Check");
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+        undoButton = new Button("Undo");
+        redoButton = new Button("Redo");
+        undoButton.setDisable(true);
+        redoButton.setDisable(true);
+        hintButton = new Button("Hint");
+
+        // Difficulty of the puzzles made by the generate button
+        difficultyChoice = new ChoiceBox<>();
+        difficultyChoice.getItems().addAll(Difficulty.values());
+        difficultyChoice.setValue(Difficulty.MEDIUM);
 
         // Creates feedback label
         feedbackLabel = new Label();
         timerLabel = new Label("Time: 00:00");
 
-        // Creates buttons from 1-9
-        for (int i = 0; i < 9; i++) {
+        // Creates buttons from 1 to the board size
+        for (int i = 0; i < boardSize; i++) {
             int number = i + 1;
             Button button = new Button(String.valueOf(number));
             numberButtons[i] = button;
@@ -96,11 +142,16 @@ public class SudokuViewer {
         }
 
         // Organizing the button panel
-        buttonPanel = new HBox(5, solveButton, clearButton, generateButton, checkButton);
+        buttonPanel = new HBox(5, solveButton, clearButton, undoButton, redoButton, hintButton,
+                difficultyChoice, generateButton, checkButton, cancelButton);
         buttonPanel.setPadding(new Insets(10));
         buttonPanel.setSpacing(10);
 
-        HBox mainContent = new HBox(gridPane_board, new VBox(10, numberButtons));
+        // Number buttons fill columns of up to 9 buttons
+        TilePane numberPanel = new TilePane(Orientation.VERTICAL, 10, 10, numberButtons);
+        numberPanel.setPrefRows(Math.min(boardSize, 9));
+
+        HBox mainContent = new HBox(board, numberPanel);
         mainContent.setSpacing(20);
 
         root = new VBox(20, timerLabel, mainContent, buttonPanel, feedbackLabel);
@@ -108,6 +159,120 @@ public class SudokuViewer {
 
         // Setup the timer
         setupTimer();
+        setupPerfOverlay();
+    }
+
+    /**
+     * Sets up the performance overlay. It floats over the top right corner
+     * without taking part in the layout, and F3 shows or hides it.
+     */
+    private void setupPerfOverlay() {
+        perfLabel = new Label();
+        perfLabel.setManaged(false);
+        perfLabel.setVisible(false);
+        perfLabel.setMouseTransparent(true);
+        perfLabel.setStyle("-fx-font-family: monospace; -fx-font-size: 11px; -fx-text-fill: white; "
+                + "-fx-background-color: rgba(0, 0, 0, 0.75); -fx-padding: 6;");
+        perfLabel.layoutXProperty().bind(root.widthProperty().subtract(perfLabel.widthProperty()).subtract(10));
+        perfLabel.setLayoutY(10);
+        root.getChildren().add(perfLabel);
+
+        perfTimer = new AnimationTimer() {
+            private long lastFrame;
+            private long lastRefresh;
+
+            @Override
+            public void handle(long now) {
+                if (lastFrame != 0) {
+                    perfRecorder.record(PerfRecorder.Metric.FRAME, now - lastFrame);
+                }
+                lastFrame = now;
+                // The text is only rebuilt a few times a second
+                if (now - lastRefresh >= 250_000_000L) {
+                    lastRefresh = now;
+                    refreshPerfOverlay();
+                }
+            }
+
+            @Override
+            public void stop() {
+                super.stop();
+                lastFrame = 0;
+            }
+        };
+
+        root.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (event.getCode() == KeyCode.F3) {
+                setPerfOverlayVisible(!isPerfOverlayVisible());
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Shows or hides the performance overlay. Samples are only recorded while
+     * it is shown.
+     * 
+     * @param visible Whether to show the overlay.
+     */
+    public void setPerfOverlayVisible(boolean visible) {
+        if (visible == isPerfOverlayVisible()) {
+            return;
+        }
+        perfRecorder.setEnabled(visible);
+        perfLabel.setVisible(visible);
+        if (visible) {
+            perfScene = root.getScene();
+            if (perfScene != null) {
+                perfScene.addPreLayoutPulseListener(prePulse);
+                perfScene.addPostLayoutPulseListener(postPulse);
+            }
+            refreshPerfOverlay();
+            perfTimer.start();
+        } else {
+            perfTimer.stop();
+            if (perfScene != null) {
+                perfScene.removePreLayoutPulseListener(prePulse);
+                perfScene.removePostLayoutPulseListener(postPulse);
+                perfScene = null;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the performance overlay is shown.
+     * 
+     * @return true if the overlay is shown.
+     */
+    public boolean isPerfOverlayVisible() {
+        return perfRecorder.isEnabled();
+    }
+
+    /**
+     * Returns the recorder of the timings shown in the performance overlay.
+     * 
+     * @return the recorder.
+     */
+    public PerfRecorder getPerfRecorder() {
+        return perfRecorder;
+    }
+
+    /**
+     * Shows the latest timings in the performance overlay: for each metric the
+     * last latency, the p50 and p99 of the recent samples and the heap the
+     * last operation allocated.
+     */
+    private void refreshPerfOverlay() {
+        StringBuilder text = new StringBuilder(String.format("%-8s %9s %9s %9s %9s", "", "last ms", "p50 ms",
+                "p99 ms", "alloc KB"));
+        for (PerfRecorder.Metric metric : PerfRecorder.Metric.values()) {
+            long allocated = perfRecorder.getLastAllocated(metric);
+            text.append(String.format("%n%-8s %9.2f %9.2f %9.2f %9s", metric, perfRecorder.getLast(metric) / 1e6,
+                    perfRecorder.getPercentile(metric, 0.5) / 1e6, perfRecorder.getPercentile(metric, 0.99) / 1e6,
+                    allocated < 0 ? "-" : Long.toString(allocated / 1024)));
+        }
+        perfLabel.setText(text.toString());
+        perfLabel.autosize();
     }
 
     /**
@@ -118,21 +283,48 @@ public class SudokuViewer {
         secondsElapsed = 0;
         timer = new Timeline(new KeyFrame(Duration.seconds(1), e -> {
             secondsElapsed++;
-            int minutes = secondsElapsed / 60;
-            int seconds = secondsElapsed % 60;
-            timerLabel.setText(String.format("Time: %02d:%02d", minutes, seconds));
+            updateTimerLabel();
         }));
         timer.setCycleCount(Timeline.INDEFINITE); // Run indefinitely
     }
 
+    /**
+     * Shows the elapsed time in a minutes:seconds format.
+     */
+    private void updateTimerLabel() {
+        int minutes = secondsElapsed / 60;
+        int seconds = secondsElapsed % 60;
+        timerLabel.setText(String.format("Time: %02d:%02d", minutes, seconds));
+    }
+
     /**
      * Starts the timer from zero and begins counting the elapsed time.
      */
     public void startTimer() {
-        secondsElapsed = 0;
+        startTimer(0);
+    }
+
+    /**
+     * Starts the timer from the given time, for example when a saved game is
+     * continued.
+     * 
+     * @param secondsElapsed The time already played in seconds.
+     */
+    public void startTimer(int secondsElapsed) {
+        this.secondsElapsed = secondsElapsed;
+        updateTimerLabel();
         timer.playFromStart();
     }
 
+    /**
+     * Returns the time counted by the timer.
+     * 
+     * @return the elapsed seconds.
+     */
+    public int getSecondsElapsed() {
+        return secondsElapsed;
+    }
+
     /**
      * Stops the timer, pausing the elapsed time count.
      */
@@ -150,12 +342,21 @@ public class SudokuViewer {
     }
 
     /**
-     * Returns the 2D array of cells that make up the Sudoku board.
+     * Returns the number of rows (and columns) of the board shown by this view.
+     * 
+     * @return the board size.
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Returns the canvas that draws the Sudoku board.
      * 
-     * @return a 2D array of cells.
+     * @return the board.
      */
-    public TextField[][] getCells() {
-        return cells;
+    public BoardCanvas getBoard() {
+        return board;
     }
 
     /**
@@ -185,6 +386,42 @@ public class SudokuViewer {
         return generateButton;
     }
 
+    /**
+     * Returns the undo button.
+     * 
+     * @return the button labeled "Undo".
+     */
+    public Button getUndoButton() {
+        return undoButton;
+    }
+
+    /**
+     * Returns the redo button.
+     * 
+     * @return the button labeled "Redo".
+     */
+    public Button getRedoButton() {
+        return redoButton;
+    }
+
+    /**
+     * Returns the hint button.
+     * 
+     * @return the button labeled "Hint".
+     */
+    public Button getHintButton() {
+        return hintButton;
+    }
+
+    /**
+     * Returns the difficulty chosen for new puzzles.
+     * 
+     * @return the selected difficulty, Medium by default.
+     */
+    public Difficulty getSelectedDifficulty() {
+        return difficultyChoice.getValue();
+    }
+
     /**
      * Returns the check button.
      * 
@@ -194,6 +431,165 @@ public class SudokuViewer {
         return checkButton;
     }
 
+    /**
+     * Returns the cancel button, which stops a running solve or generate.
+     * 
+     * @return the button labeled "Cancel".
+     */
+    public Button getCancelButton() {
+        return cancelButton;
+    }
+
+    /**
+     * Shows a message in the feedback label below the buttons.
+     * 
+     * @param message The message to show, or an empty string to clear it.
+     */
+    public void setFeedback(String message) {
+        feedbackLabel.setText(message);
+    }
+
+    /**
+     * Disables the function buttons while a background task is running and
+     * enables the cancel button, or the other way around.
+     * 
+     * @param busy true while a solve or generate is running.
+     */
+    public void setBusy(boolean busy) {
+        solveButton.setDisable(busy);
+        clearButton.setDisable(busy);
+        generateButton.setDisable(busy);
+        difficultyChoice.setDisable(busy);
+        checkButton.setDisable(busy);
+        hintButton.setDisable(busy);
+        cancelButton.setDisable(!busy);
+        if (busy) {
+            undoButton.setDisable(true);
+            redoButton.setDisable(true);
+        } else {
+            updateHistoryButtons();
+        }
+    }
+
+    /**
+     * Returns the history of the player's moves on this puzzle.
+     * 
+     * @return the move history.
+     */
+    public MoveHistory getMoveHistory() {
+        return history;
+    }
+
+    /**
+     * Undoes the player's last step. Only the cells of that step are changed,
+     * and the number counts are updated as they change.
+     */
+    public void undo() {
+        history.undo(this::setCellValue);
+        updateHistoryButtons();
+        boardChanged();
+    }
+
+    /**
+     * Redoes the player's last undone step.
+     */
+    public void redo() {
+        history.redo(this::setCellValue);
+        updateHistoryButtons();
+        boardChanged();
+    }
+
+    /**
+     * Moves to any point of the move history, changing only the cells of the
+     * moves in between.
+     * 
+     * @param position The number of moves that should be applied.
+     */
+    public void jumpToMove(int position) {
+        history.jumpTo(position, this::setCellValue);
+        updateHistoryButtons();
+        boardChanged();
+    }
+
+    /**
+     * Sets one cell while replaying a move and updates the number counts. Its
+     * check colour no longer applies, so it goes back to plain.
+     * 
+     * @param cell  The cell index in row-major order.
+     * @param value The value to show, 0 for empty.
+     */
+    private void setCellValue(int cell, int value) {
+        changeNumberCount(board.getValue(cell), -1);
+        changeNumberCount(value, 1);
+        board.setValue(cell, value);
+        board.setState(cell, BoardCanvas.CellState.PLAIN);
+    }
+
+    /**
+     * Sets what to run whenever the numbers on the board change, by the
+     * player, by undo or redo, or by loading or clearing the board.
+     * 
+     * @param action The action to run on the FX thread, or null for none.
+     */
+    public void setOnBoardChanged(Runnable action) {
+        onBoardChanged = action;
+    }
+
+    /**
+     * Reads the numbers currently on the board, including the player's
+     * entries, into a flat board.
+     * 
+     * @return a new flat board with 0 for empty cells.
+     */
+    public byte[] copyEntries() {
+        byte[] entries = new byte[boardSize * boardSize];
+        for (int cell = 0; cell < entries.length; cell++) {
+            entries[cell] = (byte) board.getValue(cell);
+        }
+        return entries;
+    }
+
+    /**
+     * Highlights the cell of a hint. The highlight is removed when the board
+     * changes or another hint is shown.
+     * 
+     * @param cell The cell index in row-major order.
+     */
+    public void showHint(int cell) {
+        clearHint();
+        hintCell = cell;
+        board.setState(cell, BoardCanvas.CellState.HINT);
+    }
+
+    /**
+     * Removes the highlight of the last hint, if it is still shown.
+     */
+    private void clearHint() {
+        if (hintCell >= 0) {
+            board.setState(hintCell, BoardCanvas.CellState.PLAIN);
+            hintCell = -1;
+        }
+    }
+
+    /**
+     * Removes the hint highlight and tells the listener that the board
+     * changed.
+     */
+    private void boardChanged() {
+        clearHint();
+        if (onBoardChanged != null) {
+            onBoardChanged.run();
+        }
+    }
+
+    /**
+     * Enables the undo and redo buttons when there is a step to undo or redo.
+     */
+    private void updateHistoryButtons() {
+        undoButton.setDisable(!history.canUndo());
+        redoButton.setDisable(!history.canRedo());
+    }
+
     /**
      * Adds a number to the currently selected cell on the board.
      * The number is added if the cell is editable and currently empty.
@@ -201,93 +597,126 @@ public class SudokuViewer {
      * @param number The number to add to the selected cell.
      */
     private void addNumberToSelectedCell(int number) {
-        if (selectedCell != null && selectedCell.isEditable()) {
-            String currentText = selectedCell.getText();
-            if (currentText.isEmpty()) {
-                selectedCell.setText(String.valueOf(number));
-                updateButtonState();
-            }
+        int cell = board.getSelectedCell();
+        if (cell >= 0 && board.getValue(cell) == 0) {
+            board.enterValue(cell, number);
         }
     }
 
     /**
-     * Updates the state of the number buttons
+     * Changes the count of one number and updates its button if it becomes
+     * full or stops being full.
+     * 
+     * @param number The number, or 0 for none.
+     * @param delta  The change of the count.
      */
-    private void updateButtonState() {
-        // Reset number counts
-        for (int i = 0; i < 9; i++) {
-            numberCount[i] = 0;
+    private void changeNumberCount(int number, int delta) {
+        if (number > 0) {
+            numberCount[number - 1] += delta;
+            updateButtonState(number - 1);
         }
+    }
 
-        // Count occurrences of each number on the board
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                String text = cells[row][col].getText();
-                if (!text.isEmpty()) {
-                    int number = Integer.parseInt(text);
-                    numberCount[number - 1]++;
-                }
+    /**
+     * Counts every number on the board again and updates the buttons. This is
+     * done once after a bulk update of the cells.
+     */
+    private void recountNumbers() {
+        for (int i = 0; i < boardSize; i++) {
+            numberCount[i] = 0;
+        }
+        for (int cell = 0; cell < boardSize * boardSize; cell++) {
+            int number = board.getValue(cell);
+            if (number > 0) {
+                numberCount[number - 1]++;
             }
         }
+        for (int i = 0; i < boardSize; i++) {
+            updateButtonState(i);
+        }
+    }
 
-        // Update buttons based on the count
-        for (int i = 0; i < 9; i++) {
-            if (numberCount[i] >= 9) {
-                numberButtons[i].setDisable(true);
-                numberButtons[i].setStyle("-fx-background-color: grey;");
-            } else {
-                numberButtons[i].setDisable(false);
-                numberButtons[i].setStyle("");
-            }
+    /**
+     * Updates the state of one number button. The button is only restyled
+     * when it changes between enabled and disabled.
+     * 
+     * @param index The index of the button, one less than its number.
+     */
+    private void updateButtonState(int index) {
+        boolean full = numberCount[index] >= boardSize;
+        Button button = numberButtons[index];
+        if (button.isDisable() != full) {
+            button.setDisable(full);
+            button.setStyle(full ? "-fx-background-color: grey;" : "");
         }
     }
 
     /**
      * Updates the Sudoku board UI with the board state.
-     * The board is cleared and then filled with the new values
+     * The board is cleared and then filled with the new values. The number
+     * counts are updated once at the end instead of for every cell, and the
+     * move history starts again.
      * 
      * @param board The 2D array representing the Sudoku board state.
      */
     public void updateBoard(int[][] board) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                TextField current = cells[row][col];
-
-                // Resetting board editability and style
-                current.setEditable(true);
-                current.setStyle("-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: white;");
+        SudokuEvents.UpdateBoard event = new SudokuEvents.UpdateBoard();
+        event.begin();
+        this.board.loadPuzzle(board);
+        recountNumbers();
+        history.clear();
+        updateHistoryButtons();
+        // Every cell lost its colour, so there is no hint highlight to remove
+        hintCell = -1;
+        boardChanged();
+        if (event.shouldCommit()) {
+            event.boardSize = boardSize;
+            for (int count : numberCount) {
+                event.filledCells += count;
+            }
+            event.commit();
+        }
+    }
 
-                // Inputting nothing if empty grid cell
-                if (board[row][col] == 0) {
-                    current.setText("");
-                }
-                // Inputting in all starting numbers
-                else {
-                    current.setText(Integer.toString(board[row][col]));
-                    current.setEditable(false);
-                    current.setStyle("-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: lightgray;");
-                }
+    /**
+     * Puts the player's entries back on the board, for example when a saved
+     * game is continued. Only the empty cells are filled, and the move
+     * history is not changed, so the entries cannot be undone.
+     * 
+     * @param entries The flat board as the player saw it, 0 for empty cells.
+     */
+    public void restoreEntries(byte[] entries) {
+        for (int cell = 0; cell < entries.length; cell++) {
+            if (!board.isGiven(cell) && entries[cell] != 0) {
+                board.setValue(cell, entries[cell]);
             }
         }
-        updateButtonState();
+        recountNumbers();
+        boardChanged();
     }
 
     /**
-     * Clears only the user inputs
+     * Clears only the user inputs. Clearing is recorded as one step, so it
+     * can be undone.
      * 
      * @param original The original Sudoku board with the starting numbers.
      */
     public void clearUserInputs(int[][] original) {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                TextField current = cells[row][col];
-                if (current.isEditable()) {
-                    current.setText("");
-                    current.setStyle("-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: white;");
+        boolean linked = false;
+        for (int cell = 0; cell < boardSize * boardSize; cell++) {
+            if (!board.isGiven(cell)) {
+                int number = board.getValue(cell);
+                if (number != 0) {
+                    history.record(cell, number, 0, linked);
+                    linked = true;
                 }
+                board.setValue(cell, 0);
+                board.setState(cell, BoardCanvas.CellState.PLAIN);
             }
         }
-        updateButtonState();
+        recountNumbers();
+        updateHistoryButtons();
+        boardChanged();
     }
 
     /**
@@ -310,39 +739,44 @@ public class SudokuViewer {
      *              puzzle.
      */
     public void highlightCells(int[][] board) {
+        SudokuEvents.HighlightCells event = new SudokuEvents.HighlightCells();
+        event.begin();
+        int correct = 0;
+        int wrong = 0;
+        int empty = 0;
         isGameWon = true;
+        // The check colours replace any hint highlight
+        hintCell = -1;
 
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                TextField current = cells[row][col];
+        for (int row = 0; row < boardSize; row++) {
+            for (int col = 0; col < boardSize; col++) {
+                int cell = row * boardSize + col;
                 // Ensure we're only checking editable cells
-                if (current.isEditable()) {
-                    String text = current.getText().trim(); // Trim any whitespace
-                    if (!text.isEmpty()) {
-                        try {
-                            int value = Integer.parseInt(text);
-                            if (board[row][col] != value) {
-                                current.setStyle(
-                                        "-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: #FF6666; ");
-                                // If any cell is wrong, the user hasn't won
-                                isGameWon = false;
-                            } else {
-                                current.setStyle(
-                                        "-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: #66FF66; ");
-                            }
-                        } catch (NumberFormatException e) {
-                            current.setStyle(
-                                    "-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: #FF6666; ");
-                            // If any input is not a number, the user hasn't won
-                            isGameWon = false;
-                        }
-                    } else {
-                        current.setStyle("-fx-font-size: 24px; -fx-alignment: center; -fx-background-color: white;");
+                if (!this.board.isGiven(cell)) {
+                    int value = this.board.getValue(cell);
+                    if (value == 0) {
+                        this.board.setState(cell, BoardCanvas.CellState.PLAIN);
                         // If any cell is empty, the user hasn't won
                         isGameWon = false;
+                        empty++;
+                    } else if (board[row][col] != value) {
+                        this.board.setState(cell, BoardCanvas.CellState.WRONG);
+                        // If any cell is wrong, the user hasn't won
+                        isGameWon = false;
+                        wrong++;
+                    } else {
+                        this.board.setState(cell, BoardCanvas.CellState.CORRECT);
+                        correct++;
                     }
                 }
             }
         }
+        if (event.shouldCommit()) {
+            event.boardSize = boardSize;
+            event.correctCells = correct;
+            event.wrongCells = wrong;
+            event.emptyCells = empty;
+            event.commit();
+        }
     }
 }
@@ -0,0 +1,88 @@
+/**
+ * This enum lists the solving techniques used by DifficultyGrader, from the
+ * simplest to the hardest, with the difficulty grade each one stands for.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public enum Technique {
+    /**
+     * A cell with only one candidate left.
+     */
+    NAKED_SINGLE("Naked single", Difficulty.EASY),
+
+    /**
+     * A digit that fits in only one cell of a row, column or subgrid.
+     */
+    HIDDEN_SINGLE("Hidden single", Difficulty.EASY),
+
+    /**
+     * A digit whose candidates in a subgrid all lie in one row or column, so
+     * it can be removed from the rest of that row or column.
+     */
+    POINTING("Pointing pair", Difficulty.MEDIUM),
+
+    /**
+     * A digit whose candidates in a row or column all lie in one subgrid, so
+     * it can be removed from the rest of that subgrid.
+     */
+    BOX_LINE("Box/line reduction", Difficulty.MEDIUM),
+
+    /**
+     * Two cells of a unit with the same two candidates, which can be removed
+     * from the other cells of the unit.
+     */
+    NAKED_PAIR("Naked pair", Difficulty.MEDIUM),
+
+    /**
+     * Two digits that fit in the same two cells of a unit only, so the other
+     * candidates of those cells can be removed.
+     */
+    HIDDEN_PAIR("Hidden pair", Difficulty.MEDIUM),
+
+    /**
+     * Three cells of a unit whose candidates are three digits in total, which
+     * can be removed from the other cells of the unit.
+     */
+    NAKED_TRIPLE("Naked triple", Difficulty.HARD),
+
+    /**
+     * A digit that fits in the same two columns of two rows (or the same two
+     * rows of two columns), so it can be removed from the rest of those
+     * columns (or rows).
+     */
+    X_WING("X-wing", Difficulty.HARD);
+
+    private final String displayName;
+    private final Difficulty difficulty;
+
+    /**
+     * Creates a technique.
+     *
+     * @param displayName The name shown to the player.
+     * @param difficulty  The grade of a puzzle that needs this technique.
+     */
+    Technique(String displayName, Difficulty difficulty) {
+        this.displayName = displayName;
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * Returns the grade of a puzzle that needs this technique.
+     *
+     * @return the difficulty.
+     */
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * Returns the name shown to the player, for example in a hint.
+     *
+     * @return the display name.
+     */
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
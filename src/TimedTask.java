@@ -0,0 +1,60 @@
+import javafx.concurrent.Task;
+
+/**
+ * This class is a background task that measures how long its work took and
+ * how much heap it allocated on the thread that ran it, so the controller
+ * can show both in the performance overlay once the task is done.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+public abstract class TimedTask<T> extends Task<T> {
+    private volatile long elapsedNanos;
+    private volatile long allocatedBytes = -1;
+
+    /**
+     * Runs the work and measures it.
+     *
+     * @return the result of the work.
+     * @throws Exception if the work fails.
+     */
+    @Override
+    protected final T call() throws Exception {
+        long startBytes = PerfRecorder.threadAllocatedBytes();
+        long startTime = System.nanoTime();
+        try {
+            return compute();
+        } finally {
+            elapsedNanos = System.nanoTime() - startTime;
+            if (startBytes >= 0) {
+                allocatedBytes = PerfRecorder.threadAllocatedBytes() - startBytes;
+            }
+        }
+    }
+
+    /**
+     * Does the work of the task on the background thread.
+     *
+     * @return the result.
+     * @throws Exception if the work fails.
+     */
+    protected abstract T compute() throws Exception;
+
+    /**
+     * Returns how long the work took.
+     *
+     * @return the time in nanoseconds, 0 before the work is done.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the heap allocated by the work.
+     *
+     * @return the bytes allocated, or -1 if not measured.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,141 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * This class is the SIMD path of BatchValidator, written with the incubating
+ * Vector API. It is only loaded when the jdk.incubator.vector module is
+ * present, so the rest of the engine runs without it.
+ *
+ * The rules are checked for as many boards at a time as an int vector has
+ * lanes, 8 with AVX2 and 16 with AVX-512. The values of such a block of
+ * boards are first laid out cell by cell, so that one vector holds the same
+ * cell of every board in the block, and turned into bits. Every unit is then
+ * checked for all boards of the block with one OR and one add per cell. Empty
+ * cells and cells that differ from the solution are found board by board,
+ * comparing a whole byte vector of cells at once.
+ *
+ * A validator keeps a scratch array for one block, so it must only be used
+ * by one thread at a time.
+ *
+ * Author: Sophie Liu, Yuqing Peng, & Annabel Zhang
+ * Version: 1.0
+ */
+final class VectorBatchValidator {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    private final int size;
+    private final int cellCount;
+    private final int[] unitCells;
+    private final int lanes = INTS.length();
+    // The bits of one block of boards, cell by cell, one lane per board
+    private final int[] bits;
+
+    /**
+     * Creates the SIMD path for boards of one size.
+     *
+     * @param geometry The tables of the board size.
+     */
+    VectorBatchValidator(BoardGeometry geometry) {
+        size = geometry.getSize();
+        cellCount = geometry.getCellCount();
+        unitCells = geometry.getUnitCells();
+        bits = new int[cellCount * lanes];
+    }
+
+    /**
+     * Checks a batch of boards. The arrays have been checked by the caller.
+     *
+     * @param boards    The packed flat boards.
+     * @param solutions The packed solutions, or null.
+     * @param count     The number of boards to check.
+     * @param results   Receives the flags of every board.
+     */
+    void validate(byte[] boards, byte[] solutions, int count, byte[] results) {
+        for (int first = 0; first < count; first += lanes) {
+            checkRules(boards, first, Math.min(lanes, count - first), results);
+        }
+        for (int board = 0; board < count; board++) {
+            results[board] |= (byte) checkCells(boards, solutions, board * cellCount);
+        }
+    }
+
+    /**
+     * Checks the units of one block of boards and sets the first result of
+     * each. Lanes past the end of the batch hold empty boards, which break
+     * no rule, and their results are not written.
+     *
+     * @param boards  The packed flat boards.
+     * @param first   The first board of the block.
+     * @param used    The number of boards in the block.
+     * @param results Receives CONFLICT or 0 for every board of the block.
+     */
+    private void checkRules(byte[] boards, int first, int used, byte[] results) {
+        for (int lane = 0; lane < lanes; lane++) {
+            int offset = (first + lane) * cellCount;
+            for (int cell = 0; cell < cellCount; cell++) {
+                bits[cell * lanes + lane] = lane < used ? boards[offset + cell] : 0;
+            }
+        }
+        IntVector one = IntVector.broadcast(INTS, 1);
+        for (int i = 0; i < bits.length; i += lanes) {
+            one.lanewise(VectorOperators.LSHL, IntVector.fromArray(INTS, bits, i))
+                    .lanewise(VectorOperators.LSHR, 1).intoArray(bits, i);
+        }
+
+        VectorMask<Integer> conflict = INTS.maskAll(false);
+        for (int unit = 0; unit < unitCells.length; unit += size) {
+            IntVector seen = IntVector.zero(INTS);
+            IntVector sum = IntVector.zero(INTS);
+            for (int k = unit; k < unit + size; k++) {
+                IntVector cell = IntVector.fromArray(INTS, bits, unitCells[k] * lanes);
+                seen = seen.or(cell);
+                sum = sum.add(cell);
+            }
+            conflict = conflict.or(seen.compare(VectorOperators.NE, sum));
+        }
+
+        long conflicts = conflict.toLong();
+        for (int lane = 0; lane < used; lane++) {
+            results[first + lane] = (byte) ((conflicts >>> lane) & BatchValidator.CONFLICT);
+        }
+    }
+
+    /**
+     * Looks for empty cells and for cells that differ from the solution on
+     * one board.
+     *
+     * @param boards    The packed flat boards.
+     * @param solutions The packed solutions, or null.
+     * @param offset    The index of the board's first cell.
+     * @return the INCOMPLETE and WRONG flags of the board.
+     */
+    private int checkCells(byte[] boards, byte[] solutions, int offset) {
+        boolean empty = false;
+        boolean wrong = false;
+        int bound = BYTES.loopBound(cellCount);
+        int i = 0;
+        for (; i < bound; i += BYTES.length()) {
+            ByteVector values = ByteVector.fromArray(BYTES, boards, offset + i);
+            VectorMask<Byte> zero = values.compare(VectorOperators.EQ, (byte) 0);
+            empty |= zero.anyTrue();
+            if (solutions != null) {
+                ByteVector solution = ByteVector.fromArray(BYTES, solutions, offset + i);
+                wrong |= values.compare(VectorOperators.NE, solution).andNot(zero).anyTrue();
+            }
+        }
+        // The cells past the last whole vector
+        for (; i < cellCount; i++) {
+            byte value = boards[offset + i];
+            if (value == 0) {
+                empty = true;
+            } else if (solutions != null && value != solutions[offset + i]) {
+                wrong = true;
+            }
+        }
+        return (empty ? BatchValidator.INCOMPLETE : 0) | (wrong ? BatchValidator.WRONG : 0);
+    }
+}